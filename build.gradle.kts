@@ -1,6 +1,8 @@
 plugins {
     java
+    `java-test-fixtures`
     id("com.gradleup.shadow") version "9.3.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "anon.def9a2a4"
@@ -23,9 +25,78 @@ repositories {
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.21.8-R0.1-SNAPSHOT")
     implementation("org.bstats:bstats-bukkit:3.1.0")
+
+    // Tests and benchmarks run against MockBukkit's in-process server, which brings its own Paper API
+    testFixturesImplementation("org.mockbukkit.mockbukkit:mockbukkit-v1.21:4.76.0")
+    testImplementation("org.mockbukkit.mockbukkit:mockbukkit-v1.21:4.76.0")
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    jmh("org.mockbukkit.mockbukkit:mockbukkit-v1.21:4.76.0")
+    jmh(testFixtures(project))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("ms")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// Fails the benchmark run when a scenario exceeds its limits in src/jmh/budgets.properties
+val jmhBudgets by tasks.registering {
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    val budgets = file("src/jmh/budgets.properties")
+    inputs.file(budgets)
+
+    doLast {
+        val limits = java.util.Properties().apply { budgets.inputStream().use { load(it) } }
+        @Suppress("UNCHECKED_CAST")
+        val runs = groovy.json.JsonSlurper().parse(results.get().asFile) as List<Map<String, Any?>>
+        val failures = mutableListOf<String>()
+
+        for (run in runs) {
+            val name = (run["benchmark"] as String).substringAfterLast('.')
+            val throughput = ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+            val secondary = run["secondaryMetrics"] as Map<*, *>
+            fun score(metric: String) = ((secondary[metric] as Map<*, *>?)?.get("score") as Number?)?.toDouble()
+
+            // Aux counters are reported as a rate, so divide by throughput to get a count per operation
+            val measured = mapOf(
+                "entityQueries" to score("entityQueries")?.div(throughput),
+                "blockAccesses" to score("blockAccesses")?.div(throughput),
+                "allocBytes" to score("gc.alloc.rate.norm"),
+            )
+            for ((metric, value) in measured) {
+                val limit = limits.getProperty("$name.$metric")?.toDouble() ?: continue
+                if (value != null && value > limit * 1.01 + 1e-6) {
+                    failures += "$name ${run["params"]}: $metric ${"%.2f".format(value)} > $limit"
+                }
+            }
+        }
+
+        if (failures.isNotEmpty()) {
+            throw GradleException("JMH budgets exceeded:\n" + failures.joinToString("\n"))
+        }
+    }
 }
 
 tasks {
+    named("jmh") {
+        finalizedBy(jmhBudgets)
+    }
+
+    test {
+        useJUnitPlatform()
+        // ScenarioTest fails the build when a scenario goes over these
+        inputs.file("src/jmh/budgets.properties")
+    }
+
     processResources {
         val props = mapOf("version" to version)
         inputs.properties(props)
@@ -0,0 +1,50 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The per-move rope proximity check that replaced {@code Listeners.isNearRope}.
+ * Runs on every player move event, so it is the hottest path in the plugin.
+ */
+public class ClimbingBenchmark {
+
+    /**
+     * Player moving within one block next to a rope; answered from the proximity cache.
+     */
+    @Benchmark
+    public void onMoveSameBlock(RopeWorldState state, Walker walker) {
+        state.plugin.getClimbing().onMove(walker.player, walker.beside);
+    }
+
+    /**
+     * Player stepping between blocks next to and away from a rope; re-scans the area each time.
+     */
+    @Benchmark
+    public void onMoveNewBlock(RopeWorldState state, Walker walker) {
+        walker.toggle = !walker.toggle;
+        state.plugin.getClimbing().onMove(walker.player, walker.toggle ? walker.beside : walker.between);
+    }
+
+    @State(Scope.Thread)
+    public static class Walker {
+        PlayerMock player;
+        Location beside;
+        Location between;
+        boolean toggle;
+
+        @Setup(Level.Trial)
+        public void setUp(RopeWorldState state) {
+            player = state.server.addPlayer();
+            int y = RopeWorldState.TOP_Y - RopeWorldState.ROPE_LENGTH / 2;
+            beside = new Location(state.world, state.ropeX(0) + 1.5, y, state.ropeZ(0) + 0.5);
+            between = new Location(state.world, state.ropeX(0) + 1.5, y, state.ropeZ(0) + 1.5);
+            player.teleport(beside);
+        }
+    }
+}
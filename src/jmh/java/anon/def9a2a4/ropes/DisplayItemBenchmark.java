@@ -0,0 +1,115 @@
+package anon.def9a2a4.ropes;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * The item carried by every rope display, built the three ways the plugin has done it:
+ *
+ *   randomProfile - a fresh head with a random profile per display (before the item was cached)
+ *   cachedProfile - the cached head with a fixed profile, copied onto each display
+ *   itemModel     - the cached resource-pack item, with no profile at all
+ *
+ * {@code itemPerDisplay} is what each spawned display costs in item building;
+ * read its allocations from the gc profiler. {@code serializeDisplay} writes a
+ * display's item and PDC and reports their size as serializedBytes per
+ * operation. The mock server can't write entity NBT, so the item is written
+ * with Bukkit object serialization; it scales with the same profile data.
+ */
+public class DisplayItemBenchmark {
+
+    @Benchmark
+    public ItemStack itemPerDisplay(DisplayState state) {
+        return state.randomProfile ? DisplayState.createRandomProfileItem(state.texture) : state.cachedItem.clone();
+    }
+
+    @Benchmark
+    public byte[] serializeDisplay(DisplayState state, Size size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeObject(state.display.getItemStack());
+        }
+        bytes.write(state.display.getPersistentDataContainer().serializeToBytes());
+        byte[] serialized = bytes.toByteArray();
+        size.serializedBytes += serialized.length;
+        return serialized;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Size {
+        public long serializedBytes;
+    }
+
+    @State(Scope.Benchmark)
+    public static class DisplayState {
+        @Param({"randomProfile", "cachedProfile", "itemModel"})
+        public String mode;
+
+        ServerMock server;
+        boolean randomProfile;
+        String texture;
+        ItemStack cachedItem;
+        ItemDisplay display;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            server = MockBukkit.mock();
+            RopesPlugin plugin = MockBukkit.load(RopesPlugin.class);
+            WorldMock world = new WorldMock();
+            server.addWorld(world);
+
+            plugin.getConfig().set("resource-pack.enabled", mode.equals("itemModel"));
+            plugin.saveConfig();
+            plugin.reloadConfiguration();
+
+            randomProfile = mode.equals("randomProfile");
+            texture = plugin.getConfiguration().getRopeBlockDisplayTexture();
+            display = plugin.getDisplay().spawnRopeDisplay(new Location(world, 0, 64, 0));
+            cachedItem = display.getItemStack();
+            if (randomProfile) {
+                display.setItemStack(createRandomProfileItem(texture));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            MockBukkit.unmock();
+        }
+
+        /**
+         * The display item as it was built for every segment before caching.
+         */
+        static ItemStack createRandomProfileItem(String texture) {
+            ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+            SkullMeta meta = (SkullMeta) head.getItemMeta();
+            PlayerProfile profile = Bukkit.createProfile(UUID.randomUUID());
+            profile.setProperty(new ProfileProperty("textures", texture));
+            meta.setPlayerProfile(profile);
+            head.setItemMeta(meta);
+            return head;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Coil creation, used for every refund, drop and crafting preview.
+ *
+ *   createRopeCoil        - lengths 1 to max-length, copied from the prebuilt templates
+ *   createRopeCoilOverMax - lengths past max-length, which are built from scratch
+ */
+public class ItemsBenchmark {
+    // How many lengths past max-length the uncached case cycles through
+    private static final int OVER_MAX_LENGTHS = 16;
+
+    @Benchmark
+    public ItemStack createRopeCoil(ItemsState state, Lengths lengths) {
+        return state.items.createRopeCoil(lengths.next(state.maxLength));
+    }
+
+    @Benchmark
+    public ItemStack createRopeCoilOverMax(ItemsState state, Lengths lengths) {
+        return state.items.createRopeCoil(state.maxLength + lengths.next(OVER_MAX_LENGTHS));
+    }
+
+    /**
+     * A MockBukkit server with only the plugin loaded; coils don't need a world.
+     */
+    @State(Scope.Benchmark)
+    public static class ItemsState {
+        Items items;
+        int maxLength;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            MockBukkit.mock();
+            RopesPlugin plugin = MockBukkit.load(RopesPlugin.class);
+            items = plugin.getItems();
+            maxLength = plugin.getConfiguration().getRopeCoilMaxLength();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            MockBukkit.unmock();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lengths {
+        private int length;
+
+        /**
+         * Cycles through 1 to count.
+         */
+        int next(int count) {
+            length = length % count + 1;
+            return length;
+        }
+    }
+}
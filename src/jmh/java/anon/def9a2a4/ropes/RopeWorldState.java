@@ -0,0 +1,112 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * A MockBukkit server with the plugin loaded and a world full of ropes.
+ *
+ * Ropes are {@value #ROPE_LENGTH} blocks long and hang every {@value #SPACING}
+ * blocks on a square grid, which is about as dense as a busy build area. They are
+ * written straight into the blocks and the rope index, without display entities,
+ * so setup stays fast at 100k segments.
+ */
+@State(Scope.Benchmark)
+public class RopeWorldState {
+    static final int ROPE_LENGTH = 10;
+    static final int SPACING = 3;
+    static final int TOP_Y = 100;
+    // Probe locations are cycled through; power of two for cheap wrapping
+    static final int PROBES = 4096;
+
+    @Param({"1000", "10000", "100000"})
+    public int segments;
+
+    ServerMock server;
+    RopesPlugin plugin;
+    CountingWorld world;
+    Ropes ropes;
+    RopeIndex index;
+    Material chainMaterial;
+    int ropeCount;
+    int side;
+
+    // Blocks inside ropes, and blocks between them
+    Location[] hits;
+    Location[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(RopesPlugin.class);
+        world = new CountingWorld();
+        server.addWorld(world);
+
+        // Place instantly so listener scenarios finish within one invocation
+        plugin.getConfig().set("rope-block.animation.enabled", false);
+        plugin.saveConfig();
+        plugin.reloadConfiguration();
+        ropes = plugin.getRopes();
+        index = plugin.getRopeIndex();
+        chainMaterial = plugin.getConfiguration().getChainMaterial();
+
+        ropeCount = Math.max(1, segments / ROPE_LENGTH);
+        side = (int) Math.ceil(Math.sqrt(ropeCount));
+        for (int i = 0; i < ropeCount; i++) {
+            hangRope(ropeX(i), ropeZ(i));
+        }
+
+        Random random = new Random(42);
+        hits = new Location[PROBES];
+        misses = new Location[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int rope = random.nextInt(ropeCount);
+            int y = TOP_Y - random.nextInt(ROPE_LENGTH);
+            hits[i] = new Location(world, ropeX(rope), y, ropeZ(rope));
+            misses[i] = new Location(world, ropeX(rope) + 1, y, ropeZ(rope) + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    int ropeX(int rope) {
+        return (rope % side) * SPACING;
+    }
+
+    int ropeZ(int rope) {
+        return (rope / side) * SPACING;
+    }
+
+    /**
+     * Places a rope hanging from a stone block, as the plugin would leave it.
+     */
+    void hangRope(int x, int z) {
+        world.getBlockAt(x, TOP_Y + 1, z).setType(Material.STONE);
+        for (int y = TOP_Y; y > TOP_Y - ROPE_LENGTH; y--) {
+            world.getBlockAt(x, y, z).setType(chainMaterial);
+            index.addSegment(world, x, y, z, Rope.AnchorType.SOLID);
+        }
+    }
+
+    Location nextHit() {
+        return hits[cursor++ & (PROBES - 1)];
+    }
+
+    Location nextMiss() {
+        return misses[cursor++ & (PROBES - 1)];
+    }
+}
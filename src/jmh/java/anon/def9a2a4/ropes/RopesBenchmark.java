@@ -0,0 +1,61 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Rope lookups and breaking, as hit by interaction, arrow and explosion handlers.
+ */
+public class RopesBenchmark {
+
+    @Benchmark
+    public boolean isRopeBlockHit(RopeWorldState state) {
+        return state.ropes.isRopeBlock(state.nextHit());
+    }
+
+    @Benchmark
+    public boolean isRopeBlockMiss(RopeWorldState state) {
+        return state.ropes.isRopeBlock(state.nextMiss());
+    }
+
+    @Benchmark
+    public Location findRopeAnchor(RopeWorldState state) {
+        return state.ropes.findRopeAnchor(state.nextHit());
+    }
+
+    /**
+     * Rope arrow landing next to ropes, with the default extend radius.
+     */
+    @Benchmark
+    public Location findNearestRope(RopeWorldState state) {
+        return state.ropes.findNearestRope(state.nextMiss(), 3.0);
+    }
+
+    /**
+     * Breaks one whole rope per invocation. The rope is hung back up between
+     * invocations, outside the measurement.
+     */
+    @Benchmark
+    public int breakRope(RopeWorldState state, BrokenRope broken) {
+        return state.ropes.breakRope(broken.target);
+    }
+
+    @State(Scope.Thread)
+    public static class BrokenRope {
+        Location target;
+        private int next;
+
+        @Setup(Level.Invocation)
+        public void restore(RopeWorldState state) {
+            if (target != null) {
+                state.hangRope(target.getBlockX(), target.getBlockZ());
+            }
+            int rope = next++ % state.ropeCount;
+            target = new Location(state.world, state.ropeX(rope), RopeWorldState.TOP_Y, state.ropeZ(rope));
+        }
+    }
+}
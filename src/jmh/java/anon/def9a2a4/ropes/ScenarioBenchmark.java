@@ -0,0 +1,200 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.ExplosionResult;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Item;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted player scenarios run through the real {@link Listeners} and {@link ClimbingListener} handlers.
+ *
+ * Every scenario reports entity queries and block lookups next to throughput and
+ * allocations, and {@code jmhBudgets} fails the run if a scenario goes over the
+ * limits in {@code src/jmh/budgets.properties}. ScenarioTest checks the same
+ * counts on every build. Each scenario works on its own rope away from the
+ * background grid, which is reset between invocations.
+ */
+public class ScenarioBenchmark {
+    static final int SCENARIO_LENGTH = 8;
+
+    @Benchmark
+    public void place(RopeWorldState state, Scenario scenario, Budget budget) {
+        scenario.holdCoil(SCENARIO_LENGTH);
+        budget.start(state.world);
+        scenario.listeners.onPlayerInteract(scenario.click(Action.RIGHT_CLICK_BLOCK, scenario.ceiling));
+        budget.stop(state.world);
+    }
+
+    @Benchmark
+    public void extend(RopeWorldState state, Scenario scenario, Budget budget) {
+        scenario.hang(SCENARIO_LENGTH / 2);
+        scenario.holdCoil(SCENARIO_LENGTH / 2);
+        budget.start(state.world);
+        scenario.listeners.onPlayerInteract(scenario.click(Action.RIGHT_CLICK_BLOCK, scenario.top));
+        budget.stop(state.world);
+    }
+
+    @Benchmark
+    public void breakByHand(RopeWorldState state, Scenario scenario, Budget budget) {
+        scenario.hang(SCENARIO_LENGTH);
+        budget.start(state.world);
+        scenario.listeners.onPlayerInteract(scenario.click(Action.LEFT_CLICK_BLOCK, scenario.top));
+        budget.stop(state.world);
+    }
+
+    @Benchmark
+    public void explode(RopeWorldState state, Scenario scenario, Budget budget) {
+        scenario.hang(SCENARIO_LENGTH);
+        EntityExplodeEvent event = new EntityExplodeEvent(scenario.player, scenario.top.getLocation(),
+            scenario.ropeBlocks(), 1.0f, ExplosionResult.DESTROY);
+        budget.start(state.world);
+        scenario.listeners.onEntityExplode(event);
+        budget.stop(state.world);
+    }
+
+    @Benchmark
+    public void piston(RopeWorldState state, Scenario scenario, Budget budget) {
+        scenario.hang(SCENARIO_LENGTH);
+        Block piston = scenario.top.getRelative(BlockFace.WEST);
+        BlockPistonExtendEvent event = new BlockPistonExtendEvent(piston, scenario.ropeBlocks(), BlockFace.EAST);
+        budget.start(state.world);
+        scenario.listeners.onPistonExtend(event);
+        budget.stop(state.world);
+    }
+
+    /**
+     * A move that stays in the same block next to a rope; the common case while climbing.
+     */
+    @Benchmark
+    public void climbSameBlock(RopeWorldState state, Climb climb, Budget budget) {
+        budget.start(state.world);
+        climb.listener.onPlayerMove(climb.stay);
+        budget.stop(state.world);
+    }
+
+    /**
+     * Moves that alternate between a block next to a rope and one away from it.
+     */
+    @Benchmark
+    public void climbNewBlock(RopeWorldState state, Climb climb, Budget budget) {
+        climb.toggle = !climb.toggle;
+        budget.start(state.world);
+        climb.listener.onPlayerMove(climb.toggle ? climb.stepAway : climb.stepBack);
+        budget.stop(state.world);
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Budget {
+        public long entityQueries;
+        public long blockAccesses;
+
+        void start(CountingWorld world) {
+            entityQueries -= world.entityQueries;
+            blockAccesses -= world.blockAccesses;
+        }
+
+        void stop(CountingWorld world) {
+            entityQueries += world.entityQueries;
+            blockAccesses += world.blockAccesses;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Scenario {
+        PlayerMock player;
+        Listeners listeners;
+        Ropes ropes;
+        Items items;
+        Block ceiling;
+        Block top;
+
+        @Setup(Level.Trial)
+        public void setUp(RopeWorldState state) {
+            listeners = new Listeners(state.plugin);
+            ropes = state.ropes;
+            items = state.plugin.getItems();
+            ceiling = state.world.getBlockAt(-64, RopeWorldState.TOP_Y + 1, -64);
+            ceiling.setType(Material.STONE);
+            top = ceiling.getRelative(BlockFace.DOWN);
+            player = state.server.addPlayer();
+            player.teleport(new Location(state.world, -62.5, RopeWorldState.TOP_Y - 2, -63.5));
+        }
+
+        @TearDown(Level.Invocation)
+        public void reset(RopeWorldState state) {
+            ropes.breakRope(top.getLocation());
+            for (Item item : state.world.getEntitiesByClass(Item.class)) {
+                item.remove();
+            }
+            player.getInventory().clear();
+        }
+
+        void hang(int length) {
+            ropes.placeRope(top.getLocation(), length);
+        }
+
+        void holdCoil(int length) {
+            player.getInventory().setItemInMainHand(items.createRopeCoil(length));
+        }
+
+        PlayerInteractEvent click(Action action, Block block) {
+            BlockFace face = action == Action.RIGHT_CLICK_BLOCK && block == ceiling ? BlockFace.DOWN : BlockFace.NORTH;
+            return new PlayerInteractEvent(player, action, player.getInventory().getItemInMainHand(),
+                block, face, EquipmentSlot.HAND);
+        }
+
+        List<Block> ropeBlocks() {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < SCENARIO_LENGTH; i++) {
+                blocks.add(top.getRelative(BlockFace.DOWN, i));
+            }
+            return blocks;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Climb {
+        ClimbingListener listener;
+        PlayerMoveEvent stay;
+        PlayerMoveEvent stepAway;
+        PlayerMoveEvent stepBack;
+        boolean toggle;
+
+        @Setup(Level.Trial)
+        public void setUp(RopeWorldState state) {
+            listener = new ClimbingListener(state.plugin.getClimbing());
+            PlayerMock player = state.server.addPlayer();
+
+            // Next to the first rope of the grid, and diagonally between ropes
+            int y = RopeWorldState.TOP_Y - RopeWorldState.ROPE_LENGTH / 2;
+            Location beside = new Location(state.world, state.ropeX(0) + 1.5, y, state.ropeZ(0) + 0.5);
+            Location nudged = beside.clone().add(0.1, 0, 0.1);
+            Location between = new Location(state.world, state.ropeX(0) + 1.5, y, state.ropeZ(0) + 1.5);
+            player.teleport(beside);
+
+            stay = new PlayerMoveEvent(player, beside, nudged);
+            stepAway = new PlayerMoveEvent(player, beside, between);
+            stepBack = new PlayerMoveEvent(player, between, beside);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single driver for all rope unfurl animations.
+ *
+ * Instead of one scheduler task per animated rope, active jobs sit in one queue
+ * that is ticked once per server tick. Each job advances on its own cadence.
+ * The driver task only runs while there is at least one job.
+ *
+ * On Folia there is no single thread that may touch every job's blocks, so each
+ * job instead runs on a timer owned by the region it is placing in.
+ */
+public class Animations {
+    private final RopesPlugin plugin;
+    private final Scheduling scheduling;
+    private final List<Job> jobs = new ArrayList<>();
+    private final AtomicInteger regionJobs = new AtomicInteger();
+    private BukkitTask task;
+    private long lastTickNanos;
+
+    /**
+     * An animation advanced by the driver every {@code ticksPerStep} ticks.
+     */
+    public abstract static class Job {
+        private final Location location;
+        private final int ticksPerStep;
+        private int cooldown;
+
+        /**
+         * @param location Where the job places blocks; decides which region runs it on Folia
+         */
+        protected Job(Location location, int ticksPerStep) {
+            this.location = location;
+            this.ticksPerStep = Math.max(1, ticksPerStep);
+        }
+
+        /**
+         * Advances the animation by one step.
+         *
+         * @return true if there is more to do, false once the job is finished
+         */
+        protected abstract boolean step();
+
+        /**
+         * Called once after the last step, or after a step failed.
+         */
+        protected abstract void complete();
+    }
+
+    public Animations(RopesPlugin plugin, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.scheduling = scheduling;
+    }
+
+    /**
+     * Queues a job. Its first step runs on the next tick.
+     */
+    public void submit(Job job) {
+        if (Scheduling.isFolia()) {
+            regionJobs.incrementAndGet();
+            scheduling.runTimerAt(job.location, scheduled -> {
+                if (!advance(job)) {
+                    scheduled.cancel();
+                    regionJobs.decrementAndGet();
+                }
+            }, 1);
+            return;
+        }
+
+        jobs.add(job);
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+        }
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+
+        // Jobs submitted from a completion callback are picked up next tick
+        int count = jobs.size();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Job job = jobs.get(i);
+            if (advance(job)) {
+                jobs.set(kept++, job);
+            }
+        }
+        // Keep anything submitted during this tick, drop finished jobs
+        jobs.subList(kept, count).clear();
+
+        if (jobs.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+        lastTickNanos = System.nanoTime() - start;
+    }
+
+    private boolean advance(Job job) {
+        if (job.cooldown > 0) {
+            job.cooldown--;
+            return true;
+        }
+
+        boolean more;
+        try {
+            more = job.step();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error during animated rope placement: " + e.getMessage());
+            more = false;
+        }
+
+        if (!more) {
+            job.complete();
+            return false;
+        }
+        job.cooldown = job.ticksPerStep - 1;
+        return true;
+    }
+
+    /**
+     * Returns the number of animations currently running.
+     */
+    public int getActiveJobCount() {
+        return jobs.size() + regionJobs.get();
+    }
+
+    /**
+     * Returns how long the last driver tick took, in nanoseconds.
+     * Always 0 on Folia, where there is no shared driver.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+}
@@ -0,0 +1,109 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Material;
+import org.bukkit.Tag;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Datapack that adds the rope block to the {@code minecraft:climbable} block tag.
+ *
+ * With the tag in place clients climb ropes themselves, like ladders and with
+ * their own movement prediction, and the server-side climbing emulation is
+ * switched off. The pack is written to the main world's datapacks folder; tags
+ * are only loaded at startup and on /minecraft:reload, so it takes effect then.
+ */
+public class ClimbableDatapack {
+    private static final String FOLDER = "ropes-climbable";
+    // Data pack format for 1.21.8
+    private static final int PACK_FORMAT = 81;
+
+    private final RopesPlugin plugin;
+
+    public ClimbableDatapack(RopesPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Writes the datapack if native climbing is enabled, or removes it if it is
+     * disabled, whether or not the server has loaded it.
+     */
+    public void install() {
+        if (plugin.getConfiguration().isNativeClimbing()) {
+            write();
+        } else {
+            remove();
+        }
+    }
+
+    /**
+     * Whether clients can climb the rope block natively, through this pack or any other.
+     */
+    public boolean isActive() {
+        return Tag.CLIMBABLE.isTagged(plugin.getConfiguration().getChainMaterial());
+    }
+
+    private void write() {
+        Path pack = folder();
+        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+        String mcmeta = "{\n"
+            + "  \"pack\": {\n"
+            + "    \"description\": \"Ropes: climbable rope blocks\",\n"
+            + "    \"pack_format\": " + PACK_FORMAT + "\n"
+            + "  }\n"
+            + "}\n";
+        String tag = "{\n"
+            + "  \"replace\": false,\n"
+            + "  \"values\": [\"" + chainMaterial.getKey() + "\"]\n"
+            + "}\n";
+
+        try {
+            boolean changed = writeIfChanged(pack.resolve("pack.mcmeta"), mcmeta);
+            changed |= writeIfChanged(pack.resolve("data/minecraft/tags/block/climbable.json"), tag);
+            if (changed || !isActive()) {
+                plugin.getLogger().info("Native climbing datapack written to " + pack
+                    + "; restart the server or run /minecraft:reload to enable it.");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write native climbing datapack: " + e.getMessage());
+        }
+    }
+
+    private void remove() {
+        Path pack = folder();
+        if (!Files.isDirectory(pack)) return;
+
+        try (Stream<Path> files = Files.walk(pack)) {
+            // Children before their folders
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+            if (isActive()) {
+                plugin.getLogger().info("Native climbing datapack removed from " + pack
+                    + "; restart the server or run /minecraft:reload to disable it.");
+            } else {
+                plugin.getLogger().info("Native climbing datapack removed from " + pack);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to remove native climbing datapack: " + e.getMessage());
+        }
+    }
+
+    private boolean writeIfChanged(Path file, String content) throws IOException {
+        if (Files.isRegularFile(file) && Files.readString(file).equals(content)) {
+            return false;
+        }
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return true;
+    }
+
+    private Path folder() {
+        // Datapacks are loaded from the main world's folder only
+        return plugin.getServer().getWorlds().get(0).getWorldFolder().toPath().resolve("datapacks").resolve(FOLDER);
+    }
+}
@@ -0,0 +1,285 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Vector;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tick-driven climbing engine.
+ *
+ * Players are only looked at while they are next to a rope. Whether a player is
+ * near a rope is cached per player, keyed by block position and the mutation
+ * epochs of the surrounding chunks, so most move events cost one map lookup.
+ * Once per tick every climber gets its climb state from its pitch and its
+ * vertical velocity set to match. Clients take 0.08 blocks/tick off that velocity
+ * for gravity every tick, so it has to be sent every tick to hold a climb; it is
+ * only skipped for players standing on the ground who aren't climbing up.
+ *
+ * On Folia each climber is ticked by its own entity task on the player's region
+ * thread instead of the shared per-tick task.
+ */
+public class Climbing {
+    private final RopesPlugin plugin;
+    private final Ropes ropes;
+    private final RopeIndex index;
+    private final Scheduling scheduling;
+    private final Map<UUID, Proximity> proximity = new ConcurrentHashMap<>();
+    private final Map<UUID, Climber> climbers = new ConcurrentHashMap<>();
+    private BukkitTask task;
+
+    private enum ClimbState {
+        ASCEND, HOLD, DESCEND
+    }
+
+    private static class Climber {
+        Rope rope;
+        // Block Y and world epoch at which the rope's chain was last seen next to the player
+        int chainY;
+        long chainEpoch = -1;
+        // Entity task ticking this climber on Folia
+        ScheduledTask task;
+    }
+
+    // Last "near rope" answer for a player, valid while the block and epochs are unchanged
+    private static class Proximity {
+        UUID worldId;
+        int x, y, z;
+        int eyeY;
+        long worldEpoch;
+        long areaEpoch;
+    }
+
+    public Climbing(RopesPlugin plugin, Ropes ropes, RopeIndex index, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.ropes = ropes;
+        this.index = index;
+        this.scheduling = scheduling;
+    }
+
+    public void start() {
+        if (task == null && !Scheduling.isFolia()) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (Climber climber : climbers.values()) {
+            stopTask(climber);
+        }
+        climbers.clear();
+        proximity.clear();
+    }
+
+    /**
+     * Handles a player moving to a new location. Re-evaluates whether the player
+     * is next to a rope only if they changed block or ropes around them changed.
+     */
+    public void onMove(Player player, Location to) {
+        World world = to.getWorld();
+        int x = to.getBlockX();
+        int y = to.getBlockY();
+        int z = to.getBlockZ();
+        int eyeY = (int) Math.floor(to.getY() + 1.6);
+
+        Proximity cached = proximity.get(player.getUniqueId());
+        if (cached == null) {
+            cached = new Proximity();
+            proximity.put(player.getUniqueId(), cached);
+        } else if (cached.x == x && cached.y == y && cached.z == z && cached.eyeY == eyeY
+                && cached.worldId.equals(world.getUID())) {
+            long worldEpoch = index.getWorldEpoch(world);
+            if (worldEpoch == cached.worldEpoch) return;
+            cached.worldEpoch = worldEpoch;
+            if (getAreaEpoch(world, x, z) == cached.areaEpoch) return;
+        }
+
+        cached.worldId = world.getUID();
+        cached.x = x;
+        cached.y = y;
+        cached.z = z;
+        cached.eyeY = eyeY;
+        cached.worldEpoch = index.getWorldEpoch(world);
+        cached.areaEpoch = getAreaEpoch(world, x, z);
+        updateCandidate(player, to);
+    }
+
+    private long getAreaEpoch(World world, int x, int z) {
+        int radius = plugin.getConfiguration().getInteractionRadius();
+        return index.getAreaEpoch(world, x - radius, z - radius, x + radius, z + radius);
+    }
+
+    /**
+     * Re-evaluates whether a player is next to a rope.
+     */
+    private void updateCandidate(Player player, Location loc) {
+        Climber climber = climbers.get(player.getUniqueId());
+        Rope rope = findNearbyRope(loc, climber == null ? null : climber.rope);
+
+        if (rope == null) {
+            if (climber != null) {
+                stopTask(climbers.remove(player.getUniqueId()));
+            }
+        } else if (climber == null) {
+            climber = new Climber();
+            climber.rope = rope;
+            climbers.put(player.getUniqueId(), climber);
+            if (Scheduling.isFolia()) {
+                Climber started = climber;
+                climber.task = scheduling.runTimerFor(player, scheduled -> {
+                    if (!tickClimber(player, started)) {
+                        climbers.remove(player.getUniqueId(), started);
+                        scheduled.cancel();
+                    }
+                }, 1);
+            }
+        } else {
+            climber.rope = rope;
+        }
+    }
+
+    public void remove(Player player) {
+        stopTask(climbers.remove(player.getUniqueId()));
+        proximity.remove(player.getUniqueId());
+    }
+
+    private void stopTask(Climber climber) {
+        if (climber != null && climber.task != null) {
+            climber.task.cancel();
+            climber.task = null;
+        }
+    }
+
+    public int getClimberCount() {
+        return climbers.size();
+    }
+
+    private void tick() {
+        Iterator<Map.Entry<UUID, Climber>> iterator = climbers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Climber> entry = iterator.next();
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player == null || !tickClimber(player, entry.getValue())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Applies one tick of climbing to a player.
+     *
+     * @return false if the player is no longer next to a rope
+     */
+    private boolean tickClimber(Player player, Climber climber) {
+        Location playerLoc = player.getLocation();
+
+        World world = playerLoc.getWorld();
+
+        // The cached rope was broken, merged or unloaded - look again
+        if (climber.rope.isRemoved() || !climber.rope.getWorldId().equals(world.getUID())) {
+            Rope rope = findNearbyRope(playerLoc, null);
+            if (rope == null) return false;
+            climber.rope = rope;
+        }
+
+        // The chain may also have been replaced without a rope change; read it again
+        // only once the player changes block or ropes in the world change
+        int blockY = playerLoc.getBlockY();
+        long worldEpoch = index.getWorldEpoch(world);
+        if (blockY != climber.chainY || worldEpoch != climber.chainEpoch) {
+            if (!isChainNear(world, climber.rope, blockY)) {
+                Rope rope = findNearbyRope(playerLoc, null);
+                if (rope == null) return false;
+                climber.rope = rope;
+            }
+            climber.chainY = blockY;
+            climber.chainEpoch = worldEpoch;
+        }
+
+        double climbSpeed = plugin.getConfiguration().getClimbSpeed();
+        ClimbState state = getClimbState(playerLoc.getPitch());
+        double targetY = switch (state) {
+            case ASCEND -> climbSpeed;
+            case DESCEND -> -climbSpeed;
+            case HOLD -> 0;
+        };
+
+        // Gravity would pull the player off the climb by the next tick, so velocity goes out every tick
+        if (targetY > 0 || !player.isOnGround()) {
+            Vector velocity = player.getVelocity();
+            velocity.setY(targetY);
+            player.setVelocity(velocity);
+        }
+
+        if (player.getFallDistance() > 0) {
+            player.setFallDistance(0); // Prevent fall damage while on rope
+        }
+        return true;
+    }
+
+    private ClimbState getClimbState(float pitch) {
+        // Negative = looking up, Positive = looking down
+        if (pitch < -30) return ClimbState.ASCEND;
+        if (pitch > 30) return ClimbState.DESCEND;
+        return ClimbState.HOLD;
+    }
+
+    /**
+     * Finds a rope within the interaction radius of a player's feet or eyes.
+     * If the player is still in the column of the cached rope, its top and bottom
+     * answer the question without touching the index; only the rope block nearest
+     * the player is read, in case the chain was replaced without a rope change.
+     */
+    private Rope findNearbyRope(Location loc, Rope cached) {
+        int radius = plugin.getConfiguration().getInteractionRadius();
+        World world = loc.getWorld();
+        int x = loc.getBlockX();
+        int z = loc.getBlockZ();
+        int feetY = loc.getBlockY();
+        int eyeY = (int) Math.floor(loc.getY() + 1.6);
+
+        if (cached != null && !cached.isRemoved() && cached.getX() == x && cached.getZ() == z
+                && cached.getWorldId().equals(world.getUID())
+                && feetY - radius <= cached.getTopY() && eyeY + radius >= cached.getBottomY()
+                && isChainNear(world, cached, feetY)) {
+            return cached;
+        }
+
+        // Check blocks within Manhattan distance at both feet and eye level
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) <= radius) {
+                        Rope rope = ropes.getRope(world, x + dx, feetY + dy, z + dz);
+                        if (rope != null) return rope;
+                        rope = ropes.getRope(world, x + dx, eyeY + dy, z + dz);
+                        if (rope != null) return rope;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks that the block of a rope nearest the given height is still a chain,
+     * like {@link Ropes#getRope} does for ropes found through the index.
+     */
+    private boolean isChainNear(World world, Rope rope, int y) {
+        int ropeY = Math.max(rope.getBottomY(), Math.min(rope.getTopY(), y));
+        return world.getBlockAt(rope.getX(), ropeY, rope.getZ()).getType()
+            == plugin.getConfiguration().getChainMaterial();
+    }
+}
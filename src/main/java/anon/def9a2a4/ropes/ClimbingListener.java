@@ -0,0 +1,37 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/**
+ * Feeds player movement to the server-side {@link Climbing} engine.
+ *
+ * Kept apart from {@link Listeners} so it can be unregistered, and move events
+ * cost nothing, while clients climb ropes natively.
+ */
+public class ClimbingListener implements Listener {
+    private final Climbing climbing;
+
+    public ClimbingListener(Climbing climbing) {
+        this.climbing = climbing;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        climbing.onMove(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        climbing.onMove(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        climbing.remove(event.getPlayer());
+    }
+}
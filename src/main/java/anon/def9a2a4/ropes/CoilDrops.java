@@ -0,0 +1,137 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects rope coil refunds for a tick and drops them together.
+ *
+ * Refunds landing in the same chunk during one tick are added up and dropped
+ * at the end of the tick as the fewest coils: full-length coils share stacks,
+ * plus one coil for the rest, all at the first refund's location. An explosion
+ * breaking dozens of ropes then spawns a handful of items instead of one or more
+ * per rope.
+ *
+ * The items themselves are spawned through the {@link MutationQueue}, a few
+ * stacks per slice, so a huge refund can't take a whole tick on its own.
+ */
+public class CoilDrops {
+    // Item stacks spawned per slice of mutation queue work
+    private static final int DROP_BATCH = 8;
+
+    private final RopesPlugin plugin;
+    private final Scheduling scheduling;
+    // Pending refunds by world and chunk; each entry is only touched by the thread owning its chunk
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    private record Key(World world, long chunkKey) {}
+
+    private static class Pending {
+        final Location location;
+        int meters;
+
+        Pending(Location location) {
+            this.location = location;
+        }
+    }
+
+    public CoilDrops(RopesPlugin plugin, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.scheduling = scheduling;
+    }
+
+    /**
+     * Adds a refund to be dropped at the end of the tick.
+     *
+     * @param loc Where to drop, unless an earlier refund in the same chunk this tick already picked a spot
+     */
+    public void add(Location loc, int meters) {
+        World world = loc.getWorld();
+        if (meters <= 0 || world == null) return;
+
+        Key key = new Key(world, RopeIndex.chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+        Pending drop = pending.get(key);
+        if (drop == null) {
+            drop = new Pending(loc.clone());
+            pending.put(key, drop);
+            scheduling.runLaterAt(drop.location, () -> flush(key), 1);
+        }
+        drop.meters += meters;
+    }
+
+    private void flush(Key key) {
+        Pending drop = pending.remove(key);
+        if (drop != null) {
+            dropCoils(drop.location, drop.meters, MutationQueue.Priority.WORLD);
+        }
+    }
+
+    /**
+     * Drops every pending refund right away, skipping the queue. Used on
+     * shutdown, when the end-of-tick flush would never run.
+     */
+    public void flushAll() {
+        for (Key key : pending.keySet()) {
+            Pending drop = pending.remove(key);
+            if (drop != null) {
+                DropJob job = new DropJob(drop.location, drop.meters);
+                while (job.step()) {
+                    // Keep going until every stack is dropped
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the given length of rope through the mutation queue as the fewest
+     * coils: full-length coils in shared stacks, plus one coil for the rest.
+     */
+    public void dropCoils(Location loc, int totalLength, MutationQueue.Priority priority) {
+        if (totalLength <= 0 || loc.getWorld() == null) return;
+        plugin.getMutations().submit(priority, loc, new DropJob(loc, totalLength));
+    }
+
+    /**
+     * Spawns a refund's coils a few stacks at a time.
+     */
+    private class DropJob implements MutationQueue.Work {
+        private final Location location;
+        private final int maxLength;
+        private int fullCoils;
+        private int rest;
+        private ItemStack full;
+
+        DropJob(Location location, int totalLength) {
+            this.location = location;
+            this.maxLength = plugin.getConfiguration().getRopeCoilMaxLength();
+            this.fullCoils = totalLength / maxLength;
+            this.rest = totalLength % maxLength;
+        }
+
+        @Override
+        public boolean step() {
+            World world = location.getWorld();
+            Items items = plugin.getItems();
+            for (int i = 0; i < DROP_BATCH && fullCoils > 0; i++) {
+                if (full == null) {
+                    full = items.createRopeCoil(maxLength);
+                }
+                ItemStack stack = full.clone();
+                stack.setAmount(Math.min(fullCoils, full.getMaxStackSize()));
+                world.dropItemNaturally(location, stack);
+                fullCoils -= stack.getAmount();
+            }
+            if (fullCoils > 0) return true;
+
+            if (rest > 0) {
+                world.dropItemNaturally(location, items.createRopeCoil(rest));
+                rest = 0;
+            }
+            return false;
+        }
+    }
+}
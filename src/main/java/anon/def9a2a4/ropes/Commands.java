@@ -9,19 +9,26 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class Commands implements CommandExecutor, TabCompleter {
     private final RopesPlugin plugin;
-    private static final List<String> SUBCOMMANDS = List.of("reload", "info", "delete_all", "give", "recipes", "help");
+    private static final List<String> SUBCOMMANDS = List.of("reload", "info", "audit", "delete_all", "give", "recipes", "help");
     private static final List<String> GIVE_TYPES = List.of("coil", "arrow");
+    private static final int DENSEST_CHUNKS = 3;
+    private static final List<String> AUDIT_OPTIONS = List.of("repair", "status", "cancel");
+    private static final List<String> DELETE_SCOPES = List.of("all", "world", "radius", "region", "status", "cancel", "confirm");
+
+    // The running /ropes delete_all job, if any; only touched from command and global threads
+    private volatile DeleteAllJob deleteAllJob;
+    private volatile RopeAuditor auditor;
 
     public Commands(RopesPlugin plugin) {
         this.plugin = plugin;
@@ -38,6 +45,7 @@ public class Commands implements CommandExecutor, TabCompleter {
         return switch (subcommand) {
             case "reload" -> handleReload(sender);
             case "info" -> handleInfo(sender);
+            case "audit" -> handleAudit(sender, args);
             case "delete_all" -> handleDeleteAll(sender, args);
             case "give" -> handleGive(sender, args);
             case "recipes" -> handleRecipes(sender, args);
@@ -55,7 +63,7 @@ public class Commands implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        plugin.getConfiguration().load();
+        plugin.reloadConfiguration();
         sender.sendMessage(Component.text("Configuration reloaded.", NamedTextColor.GREEN));
         sender.sendMessage(Component.text("Note: Recipe changes require a server restart.", NamedTextColor.GRAY));
         return true;
@@ -67,36 +75,97 @@ public class Commands implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        Map<String, Integer> ropeCounts = new HashMap<>();
-        int totalRopes = 0;
+        // Read from live counters, which also cover unloaded chunks
+        Map<String, RopeStats.Summary> summaries = new LinkedHashMap<>();
+        long totalSegments = 0;
+        long totalRopes = 0;
+        int longest = 0;
 
         for (World world : Bukkit.getWorlds()) {
-            int worldCount = 0;
-            for (Entity entity : world.getEntities()) {
-                if (plugin.getDisplay().isRopeDisplay(entity)) {
-                    worldCount++;
-                }
-            }
-            if (worldCount > 0) {
-                ropeCounts.put(world.getName(), worldCount);
-                totalRopes += worldCount;
+            RopeStats.Summary summary = plugin.getRopeStats().getSummary(world, DENSEST_CHUNKS);
+            if (summary.ropes() > 0) {
+                summaries.put(world.getName(), summary);
+                totalSegments += summary.segments();
+                totalRopes += summary.ropes();
+                longest = Math.max(longest, summary.maxLength());
             }
         }
 
         sender.sendMessage(Component.text("=== Ropes Info ===", NamedTextColor.GOLD));
         sender.sendMessage(Component.text("Total rope segments: ", NamedTextColor.YELLOW)
-            .append(Component.text(totalRopes, NamedTextColor.WHITE)));
+            .append(Component.text(totalSegments, NamedTextColor.WHITE)));
+        sender.sendMessage(Component.text("Total ropes: ", NamedTextColor.YELLOW)
+            .append(Component.text(totalRopes, NamedTextColor.WHITE))
+            .append(Component.text(String.format(" (average %.1fm, longest %dm)",
+                totalRopes == 0 ? 0.0 : (double) totalSegments / totalRopes, longest), NamedTextColor.GRAY)));
 
-        if (ropeCounts.isEmpty()) {
+        if (summaries.isEmpty()) {
             sender.sendMessage(Component.text("No ropes currently placed.", NamedTextColor.GRAY));
         } else {
             sender.sendMessage(Component.text("By world:", NamedTextColor.YELLOW));
-            for (Map.Entry<String, Integer> entry : ropeCounts.entrySet()) {
+            for (Map.Entry<String, RopeStats.Summary> entry : summaries.entrySet()) {
+                RopeStats.Summary summary = entry.getValue();
                 sender.sendMessage(Component.text("  " + entry.getKey() + ": ", NamedTextColor.GRAY)
-                    .append(Component.text(entry.getValue(), NamedTextColor.WHITE)));
+                    .append(Component.text(summary.segments() + " segments, " + summary.ropes() + " ropes", NamedTextColor.WHITE))
+                    .append(Component.text(String.format(" (average %.1fm, longest %dm)",
+                        summary.averageLength(), summary.maxLength()), NamedTextColor.GRAY)));
+
+                StringBuilder densest = new StringBuilder();
+                for (RopeStats.ChunkDensity chunk : summary.densest()) {
+                    if (!densest.isEmpty()) densest.append(", ");
+                    densest.append(chunk.chunkX()).append(',').append(chunk.chunkZ())
+                        .append(" (").append(chunk.segments()).append(')');
+                }
+                sender.sendMessage(Component.text("    Densest chunks: ", NamedTextColor.GRAY)
+                    .append(Component.text(densest.toString(), NamedTextColor.WHITE)));
             }
         }
 
+        Animations animations = plugin.getAnimations();
+        sender.sendMessage(Component.text("Animations running: ", NamedTextColor.YELLOW)
+            .append(Component.text(animations.getActiveJobCount(), NamedTextColor.WHITE))
+            .append(Component.text(String.format(" (%.3f ms last tick)", animations.getLastTickNanos() / 1_000_000.0), NamedTextColor.GRAY)));
+
+        MutationQueue mutations = plugin.getMutations();
+        sender.sendMessage(Component.text("Mutation queue: ", NamedTextColor.YELLOW)
+            .append(Component.text(mutations.getDepth(), NamedTextColor.WHITE))
+            .append(Component.text(" pending (" + mutations.getDepth(MutationQueue.Priority.PLAYER) + " player, "
+                + mutations.getDepth(MutationQueue.Priority.WORLD) + " world, "
+                + mutations.getDepth(MutationQueue.Priority.BULK) + " bulk), peak " + mutations.getPeakDepth()
+                + String.format(", %.3f ms last tick", mutations.getLastTickNanos() / 1_000_000.0), NamedTextColor.GRAY)));
+
+        return true;
+    }
+
+    private boolean handleAudit(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("ropes.admin")) {
+            sender.sendMessage(Component.text("You don't have permission to use this command.", NamedTextColor.RED));
+            return true;
+        }
+
+        String option = args.length >= 2 ? args[1].toLowerCase() : "";
+        switch (option) {
+            case "status" -> sender.sendMessage(auditor != null ? auditor.status()
+                : Component.text("No rope audit is running.", NamedTextColor.GRAY));
+            case "cancel" -> {
+                if (auditor == null) {
+                    sender.sendMessage(Component.text("No rope audit is running.", NamedTextColor.GRAY));
+                } else {
+                    auditor.cancel();
+                    sender.sendMessage(Component.text("Cancelling rope audit...", NamedTextColor.YELLOW));
+                }
+            }
+            case "", "repair" -> {
+                if (auditor != null) {
+                    sender.sendMessage(Component.text("A rope audit is already running. Use /ropes audit status or cancel.", NamedTextColor.RED));
+                    return true;
+                }
+                RopeAuditor job = new RopeAuditor(plugin, sender, option.equals("repair"));
+                auditor = job;
+                job.start(() -> auditor = null);
+            }
+            default -> sender.sendMessage(Component.text("Usage: /ropes audit [repair|status|cancel]", NamedTextColor.RED));
+        }
         return true;
     }
 
@@ -106,31 +175,101 @@ public class Commands implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        if (args.length < 2 || !args[1].equalsIgnoreCase("confirm")) {
-            sender.sendMessage(Component.text("Warning: This will delete ALL placed ropes in ALL worlds!", NamedTextColor.RED));
-            sender.sendMessage(Component.text("To confirm, run: /ropes delete_all confirm", NamedTextColor.YELLOW));
+        if (args.length == 2 && args[1].equalsIgnoreCase("status")) {
+            sender.sendMessage(deleteAllJob != null ? deleteAllJob.status()
+                : Component.text("No rope deletion is running.", NamedTextColor.GRAY));
             return true;
         }
 
-        int totalRemoved = 0;
+        if (args.length == 2 && args[1].equalsIgnoreCase("cancel")) {
+            if (deleteAllJob == null) {
+                sender.sendMessage(Component.text("No rope deletion is running.", NamedTextColor.GRAY));
+            } else {
+                deleteAllJob.cancel();
+                sender.sendMessage(Component.text("Cancelling rope deletion...", NamedTextColor.YELLOW));
+            }
+            return true;
+        }
 
-        for (World world : Bukkit.getWorlds()) {
-            List<Entity> toRemove = new ArrayList<>();
-            for (Entity entity : world.getEntities()) {
-                if (plugin.getDisplay().isRopeDisplay(entity)) {
-                    // Remove the associated chain block
-                    entity.getLocation().getBlock().setType(org.bukkit.Material.AIR);
-                    toRemove.add(entity);
+        if (args.length < 2 || !args[args.length - 1].equalsIgnoreCase("confirm")) {
+            sender.sendMessage(Component.text("Warning: This will delete placed ropes, by default in ALL worlds!", NamedTextColor.RED));
+            sender.sendMessage(Component.text("To confirm, run: /ropes delete_all [scope] confirm", NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("Scopes: all, world <name>, radius <blocks>, region <x1> <z1> <x2> <z2> [world]", NamedTextColor.GRAY));
+            return true;
+        }
+
+        if (deleteAllJob != null) {
+            sender.sendMessage(Component.text("A rope deletion is already running. Use /ropes delete_all status or cancel.", NamedTextColor.RED));
+            return true;
+        }
+
+        DeleteAllJob.Scope scope = parseDeleteScope(sender, args);
+        if (scope == null) return true;
+
+        DeleteAllJob job = new DeleteAllJob(plugin, sender, scope);
+        deleteAllJob = job;
+        job.start(() -> deleteAllJob = null);
+        return true;
+    }
+
+    /**
+     * Reads the scope between "delete_all" and "confirm", replying with the problem if it is invalid.
+     */
+    private DeleteAllJob.Scope parseDeleteScope(CommandSender sender, String[] args) {
+        // args[0] is "delete_all" and the last argument is "confirm"
+        int count = args.length - 2;
+        if (count == 0 || (count == 1 && args[1].equalsIgnoreCase("all"))) {
+            return DeleteAllJob.Scope.all();
+        }
+
+        String type = args[1].toLowerCase();
+        try {
+            switch (type) {
+                case "world" -> {
+                    if (count != 2) break;
+                    World world = Bukkit.getWorld(args[2]);
+                    if (world == null) {
+                        sender.sendMessage(Component.text("Unknown world: " + args[2], NamedTextColor.RED));
+                        return null;
+                    }
+                    return DeleteAllJob.Scope.world(world);
                 }
+                case "radius" -> {
+                    if (count != 2) break;
+                    if (!(sender instanceof Player player)) {
+                        sender.sendMessage(Component.text("A radius scope can only be used by players.", NamedTextColor.RED));
+                        return null;
+                    }
+                    int radius = Integer.parseInt(args[2]);
+                    if (radius < 1) throw new NumberFormatException();
+                    return DeleteAllJob.Scope.radius(player.getWorld(),
+                        player.getLocation().getBlockX(), player.getLocation().getBlockZ(), radius);
+                }
+                case "region" -> {
+                    if (count != 5 && count != 6) break;
+                    World world;
+                    if (count == 6) {
+                        world = Bukkit.getWorld(args[6]);
+                        if (world == null) {
+                            sender.sendMessage(Component.text("Unknown world: " + args[6], NamedTextColor.RED));
+                            return null;
+                        }
+                    } else {
+                        world = sender instanceof Player player ? player.getWorld() : Bukkit.getWorlds().get(0);
+                    }
+                    return DeleteAllJob.Scope.region(world, Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                        Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+                }
+                default -> { }
             }
-            for (Entity entity : toRemove) {
-                entity.remove();
-                totalRemoved++;
-            }
+        } catch (NumberFormatException e) {
+            sender.sendMessage(Component.text("Invalid number. Coordinates and radius must be whole numbers.", NamedTextColor.RED));
+            return null;
         }
 
-        sender.sendMessage(Component.text("Deleted " + totalRemoved + " rope segments.", NamedTextColor.GREEN));
-        return true;
+        sender.sendMessage(Component.text("Usage: /ropes delete_all [all | world <name> | radius <blocks> | region <x1> <z1> <x2> <z2> [world]] confirm",
+            NamedTextColor.RED));
+        return null;
     }
 
     private boolean handleGive(CommandSender sender, String[] args) {
@@ -243,8 +382,10 @@ public class Commands implements CommandExecutor, TabCompleter {
             .append(Component.text(" - Unlock rope recipes", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("/ropes reload", NamedTextColor.YELLOW)
             .append(Component.text(" - Reload the configuration", NamedTextColor.GRAY)));
-        sender.sendMessage(Component.text("/ropes delete_all", NamedTextColor.YELLOW)
-            .append(Component.text(" - Delete all placed ropes", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/ropes audit [repair]", NamedTextColor.YELLOW)
+            .append(Component.text(" - Check loaded ropes against their blocks and displays", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/ropes delete_all [scope] confirm", NamedTextColor.YELLOW)
+            .append(Component.text(" - Delete placed ropes in the background", NamedTextColor.GRAY)));
         return true;
     }
 
@@ -269,9 +410,17 @@ public class Commands implements CommandExecutor, TabCompleter {
                         completions.add(type);
                     }
                 }
+            } else if (subcommand.equals("audit")) {
+                for (String option : AUDIT_OPTIONS) {
+                    if (option.startsWith(partial)) {
+                        completions.add(option);
+                    }
+                }
             } else if (subcommand.equals("delete_all")) {
-                if ("confirm".startsWith(partial)) {
-                    completions.add("confirm");
+                for (String scope : DELETE_SCOPES) {
+                    if (scope.startsWith(partial)) {
+                        completions.add(scope);
+                    }
                 }
             } else if (subcommand.equals("recipes")) {
                 for (Player player : Bukkit.getOnlinePlayers()) {
@@ -285,6 +434,13 @@ public class Commands implements CommandExecutor, TabCompleter {
             if (subcommand.equals("give")) {
                 // Suggest some common lengths
                 completions.addAll(List.of("1", "2", "4", "8", "16"));
+            } else if (subcommand.equals("delete_all") && args[1].equalsIgnoreCase("world")) {
+                String partial = args[2].toLowerCase();
+                for (World world : Bukkit.getWorlds()) {
+                    if (world.getName().toLowerCase().startsWith(partial)) {
+                        completions.add(world.getName());
+                    }
+                }
             }
         }
 
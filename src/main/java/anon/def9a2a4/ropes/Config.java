@@ -5,6 +5,7 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.joml.Vector3f;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -25,13 +26,25 @@ public class Config {
     private Material chainMaterial;
     private double climbSpeed;
     private double climbVelocityThreshold;
+    private boolean nativeClimbing;
     private int interactionRadius;
     private Set<Material> anchorFences;
     private String ropeBlockDisplayTexture;
     private DisplayScale displayScale;
     private float displayOffsetY;
+    private DisplayMode displayMode;
     private boolean animationEnabled;
     private int animationTicksPerBlock;
+    private int placementBlocksPerTick;
+    private PistonBehavior pistonBehavior;
+    private boolean persistentDisplays;
+    private float displayViewRange;
+    private int displayBrightness;
+    private boolean cullingEnabled;
+    private int cullingIntervalTicks;
+    private int cullingHideDistance;
+    private int cullingLodDistance;
+    private int cullingLodStep;
 
     // Rope Arrow Settings
     private Material fenceMaterial;
@@ -46,6 +59,20 @@ public class Config {
     private RecipeConfig ropeArrowRecipeConfig;
     private String recipeUnlockAdvancement;
 
+    // Mutation Queue Settings
+    private int mutationTickBudgetMs;
+
+    // Resource Pack Settings
+    private boolean resourcePackEnabled;
+    private String resourcePackUrl;
+    private boolean resourcePackRequired;
+
+    // Admin Command Settings
+    private int deleteAllTickBudgetMs;
+    private int deleteAllMaxChunksPerTick;
+    private int auditTickBudgetMs;
+    private int auditMaxChunksPerTick;
+
     public Config(RopesPlugin plugin) {
         this.plugin = plugin;
         load();
@@ -82,6 +109,7 @@ public class Config {
         }
         climbSpeed = config.getDouble("rope-block.climb-speed", 0.2);
         climbVelocityThreshold = config.getDouble("rope-block.climb-velocity-threshold", 0.05);
+        nativeClimbing = config.getBoolean("rope-block.native-climbing", false);
         interactionRadius = config.getInt("rope-block.interaction-radius", 1);
 
         // Anchor Fences
@@ -112,6 +140,48 @@ public class Config {
         // Display Offset Y
         displayOffsetY = (float) config.getDouble("rope-block.display-offset-y", 0.0);
 
+        // Display Mode
+        String displayModeName = config.getString("rope-block.display-mode", "per-block");
+        displayMode = DisplayMode.fromConfig(displayModeName);
+        if (displayMode == null) {
+            plugin.getLogger().warning("Invalid display mode: " + displayModeName + ", using per-block");
+            displayMode = DisplayMode.PER_BLOCK;
+        }
+
+        // Display Persistence
+        persistentDisplays = config.getBoolean("rope-block.persistent-displays", true);
+
+        // Display View Settings
+        displayViewRange = (float) config.getDouble("rope-block.display-view-range", 1.0);
+        if (displayViewRange <= 0) {
+            plugin.getLogger().warning("Invalid display-view-range value, using default of 1.0");
+            displayViewRange = 1.0f;
+        }
+        displayBrightness = config.getInt("rope-block.display-brightness", -1);
+        if (displayBrightness > 15) {
+            plugin.getLogger().warning("Invalid display-brightness value, using world lighting");
+            displayBrightness = -1;
+        }
+
+        // Display Culling
+        cullingEnabled = config.getBoolean("rope-block.culling.enabled", false);
+        cullingIntervalTicks = config.getInt("rope-block.culling.interval-ticks", 20);
+        if (cullingIntervalTicks < 1) {
+            plugin.getLogger().warning("Invalid culling interval-ticks value, using default of 20");
+            cullingIntervalTicks = 20;
+        }
+        cullingHideDistance = config.getInt("rope-block.culling.hide-distance", 48);
+        if (cullingHideDistance < 1) {
+            plugin.getLogger().warning("Invalid culling hide-distance value, using default of 48");
+            cullingHideDistance = 48;
+        }
+        cullingLodDistance = config.getInt("rope-block.culling.lod-distance", 24);
+        cullingLodStep = config.getInt("rope-block.culling.lod-step", 4);
+        if (cullingLodStep < 1) {
+            plugin.getLogger().warning("Invalid culling lod-step value, using default of 4");
+            cullingLodStep = 4;
+        }
+
         // Animation Settings
         animationEnabled = config.getBoolean("rope-block.animation.enabled", true);
         animationTicksPerBlock = config.getInt("rope-block.animation.ticks-per-block", 2);
@@ -120,6 +190,21 @@ public class Config {
             animationTicksPerBlock = 2;
         }
 
+        // Placement Settings
+        placementBlocksPerTick = config.getInt("rope-block.placement.blocks-per-tick", 64);
+        if (placementBlocksPerTick < 1) {
+            plugin.getLogger().warning("Invalid placement blocks-per-tick value, using default of 64");
+            placementBlocksPerTick = 64;
+        }
+
+        // Piston Behavior
+        String pistonBehaviorName = config.getString("rope-block.piston-behavior", "break");
+        pistonBehavior = PistonBehavior.fromConfig(pistonBehaviorName);
+        if (pistonBehavior == null) {
+            plugin.getLogger().warning("Invalid piston behavior: " + pistonBehaviorName + ", using break");
+            pistonBehavior = PistonBehavior.BREAK;
+        }
+
         // Rope Arrow Settings
         String fenceMaterialName = config.getString("rope-arrow.place-material", "OAK_FENCE");
         fenceMaterial = Material.matchMaterial(fenceMaterialName);
@@ -150,6 +235,46 @@ public class Config {
         ropeCoilCombineEnabled = config.getBoolean("recipes.rope-coil-combine.enabled", true);
         ropeArrowRecipeConfig = loadRecipeConfig(config, "recipes.rope-arrow", true);
         recipeUnlockAdvancement = config.getString("recipes.unlock-on-advancement", "minecraft:adventure/ol_betsy");
+
+        // Mutation Queue Settings
+        mutationTickBudgetMs = config.getInt("mutation-queue.tick-budget-ms", 2);
+        if (mutationTickBudgetMs < 1) {
+            plugin.getLogger().warning("Invalid mutation-queue tick-budget-ms value, using default of 2");
+            mutationTickBudgetMs = 2;
+        }
+
+        // Resource Pack Settings
+        resourcePackEnabled = config.getBoolean("resource-pack.enabled", false);
+        resourcePackUrl = config.getString("resource-pack.url", "");
+        try {
+            URI.create(resourcePackUrl);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid resource pack URL: " + resourcePackUrl + ", not sending the pack");
+            resourcePackUrl = "";
+        }
+        resourcePackRequired = config.getBoolean("resource-pack.required", false);
+
+        // Admin Command Settings
+        deleteAllTickBudgetMs = config.getInt("commands.delete-all.tick-budget-ms", 5);
+        if (deleteAllTickBudgetMs < 1) {
+            plugin.getLogger().warning("Invalid delete-all tick-budget-ms value, using default of 5");
+            deleteAllTickBudgetMs = 5;
+        }
+        deleteAllMaxChunksPerTick = config.getInt("commands.delete-all.max-chunks-per-tick", 64);
+        if (deleteAllMaxChunksPerTick < 1) {
+            plugin.getLogger().warning("Invalid delete-all max-chunks-per-tick value, using default of 64");
+            deleteAllMaxChunksPerTick = 64;
+        }
+        auditTickBudgetMs = config.getInt("commands.audit.tick-budget-ms", 2);
+        if (auditTickBudgetMs < 1) {
+            plugin.getLogger().warning("Invalid audit tick-budget-ms value, using default of 2");
+            auditTickBudgetMs = 2;
+        }
+        auditMaxChunksPerTick = config.getInt("commands.audit.max-chunks-per-tick", 8);
+        if (auditMaxChunksPerTick < 1) {
+            plugin.getLogger().warning("Invalid audit max-chunks-per-tick value, using default of 8");
+            auditMaxChunksPerTick = 8;
+        }
     }
 
     private RecipeConfig loadRecipeConfig(FileConfiguration config, String path, boolean defaultEnabled) {
@@ -246,6 +371,13 @@ public class Config {
         return climbVelocityThreshold;
     }
 
+    /**
+     * Whether to install the datapack that makes rope blocks climbable for clients.
+     */
+    public boolean isNativeClimbing() {
+        return nativeClimbing;
+    }
+
     public int getInteractionRadius() {
         return interactionRadius;
     }
@@ -270,6 +402,10 @@ public class Config {
         return displayOffsetY;
     }
 
+    public DisplayMode getDisplayMode() {
+        return displayMode;
+    }
+
     public boolean isAnimationEnabled() {
         return animationEnabled;
     }
@@ -278,6 +414,58 @@ public class Config {
         return animationTicksPerBlock;
     }
 
+    /**
+     * Rope blocks placed per mutation queue batch without animation; longer ropes are spread over several batches.
+     */
+    public int getPlacementBlocksPerTick() {
+        return placementBlocksPerTick;
+    }
+
+    /**
+     * Whether rope displays are saved with their chunk, rather than rebuilt from rope data when it loads.
+     */
+    public boolean isPersistentDisplays() {
+        return persistentDisplays;
+    }
+
+    public float getDisplayViewRange() {
+        return displayViewRange;
+    }
+
+    /**
+     * Fixed light level for rope displays, or -1 to light them from the world.
+     */
+    public int getDisplayBrightness() {
+        return displayBrightness;
+    }
+
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    public int getCullingIntervalTicks() {
+        return cullingIntervalTicks;
+    }
+
+    public int getCullingHideDistance() {
+        return cullingHideDistance;
+    }
+
+    /**
+     * Distance beyond which only every {@link #getCullingLodStep()}th segment is shown, or 0 to always show all.
+     */
+    public int getCullingLodDistance() {
+        return cullingLodDistance;
+    }
+
+    public int getCullingLodStep() {
+        return cullingLodStep;
+    }
+
+    public PistonBehavior getPistonBehavior() {
+        return pistonBehavior;
+    }
+
     public Material getFenceMaterial() {
         return fenceMaterial;
     }
@@ -314,6 +502,41 @@ public class Config {
         return recipeUnlockAdvancement;
     }
 
+    public int getMutationTickBudgetMs() {
+        return mutationTickBudgetMs;
+    }
+
+    public boolean isResourcePackEnabled() {
+        return resourcePackEnabled;
+    }
+
+    /**
+     * URL joining players download the pack from, or empty if it is served another way.
+     */
+    public String getResourcePackUrl() {
+        return resourcePackUrl;
+    }
+
+    public boolean isResourcePackRequired() {
+        return resourcePackRequired;
+    }
+
+    public int getDeleteAllTickBudgetMs() {
+        return deleteAllTickBudgetMs;
+    }
+
+    public int getDeleteAllMaxChunksPerTick() {
+        return deleteAllMaxChunksPerTick;
+    }
+
+    public int getAuditTickBudgetMs() {
+        return auditTickBudgetMs;
+    }
+
+    public int getAuditMaxChunksPerTick() {
+        return auditMaxChunksPerTick;
+    }
+
     // Inner Records and Enums
 
     public record DisplayScale(float x, float y, float z) {
@@ -322,6 +545,38 @@ public class Config {
         }
     }
 
+    public enum DisplayMode {
+        /** One display entity per rope block */
+        PER_BLOCK,
+        /** One stretched display entity per rope */
+        MERGED;
+
+        public static DisplayMode fromConfig(String name) {
+            if (name == null) return null;
+            return switch (name.toLowerCase()) {
+                case "per-block" -> PER_BLOCK;
+                case "merged" -> MERGED;
+                default -> null;
+            };
+        }
+    }
+
+    public enum PistonBehavior {
+        /** Ropes touched by a piston break and drop as coils */
+        BREAK,
+        /** Ropes pushed or pulled whole move with the piston; others still break */
+        MOVE;
+
+        public static PistonBehavior fromConfig(String name) {
+            if (name == null) return null;
+            return switch (name.toLowerCase()) {
+                case "break" -> BREAK;
+                case "move" -> MOVE;
+                default -> null;
+            };
+        }
+    }
+
     public record ItemDisplayConfig(String nameTemplate, List<String> loreTemplates) {}
 
     public record RecipeConfig(
@@ -0,0 +1,289 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background removal of placed ropes for /ropes delete_all.
+ *
+ * Every chunk known to hold ropes, loaded or not, is queued up front and then
+ * cleared a few at a time each tick, within the configured time budget. Unloaded
+ * chunks are loaded asynchronously, a few in flight at once, and cleared once
+ * they arrive. Each chunk is cleared as bulk work in the {@link MutationQueue},
+ * behind player actions, on the thread that owns it.
+ *
+ * A chunk is only cleared once its entities have loaded, so its rope displays go
+ * with its ropes, including displays the index doesn't know about.
+ */
+public class DeleteAllJob {
+    private static final int MAX_PENDING_LOADS = 8;
+    private static final int PROGRESS_INTERVAL_TICKS = 100;
+    // How often to look again at a chunk whose entities haven't loaded, and for how long at most
+    private static final int ENTITY_WAIT_TICKS = 5;
+    private static final int MAX_ENTITY_WAIT_TICKS = 200;
+
+    /**
+     * Which ropes a job deletes, by world and block column.
+     *
+     * @param world The only world to include, or null for all worlds
+     * @param radius Radius around the centre of the bounds, or 0 to use the whole bounds
+     */
+    public record Scope(String description, World world, int minX, int minZ, int maxX, int maxZ, int radius) {
+        public static Scope all() {
+            return new Scope("all worlds", null, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+        }
+
+        public static Scope world(World world) {
+            return new Scope("world " + world.getName(), world,
+                Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+        }
+
+        public static Scope region(World world, int x1, int z1, int x2, int z2) {
+            return new Scope("region " + x1 + "," + z1 + " to " + x2 + "," + z2 + " in " + world.getName(), world,
+                Math.min(x1, x2), Math.min(z1, z2), Math.max(x1, x2), Math.max(z1, z2), 0);
+        }
+
+        public static Scope radius(World world, int centerX, int centerZ, int radius) {
+            return new Scope("radius " + radius + " around " + centerX + "," + centerZ + " in " + world.getName(), world,
+                centerX - radius, centerZ - radius, centerX + radius, centerZ + radius, radius);
+        }
+
+        boolean includesWorld(World other) {
+            return world == null || world.getUID().equals(other.getUID());
+        }
+
+        boolean includesChunk(int chunkX, int chunkZ) {
+            long blockX = (long) chunkX << 4;
+            long blockZ = (long) chunkZ << 4;
+            return blockX + 15 >= minX && blockX <= maxX && blockZ + 15 >= minZ && blockZ <= maxZ;
+        }
+
+        boolean includesColumn(int x, int z) {
+            if (x < minX || x > maxX || z < minZ || z > maxZ) return false;
+            if (radius == 0) return true;
+            long dx = x - (minX + radius);
+            long dz = z - (minZ + radius);
+            return dx * dx + dz * dz <= (long) radius * radius;
+        }
+    }
+
+    private record PendingChunk(World world, int chunkX, int chunkZ) {}
+
+    private final RopesPlugin plugin;
+    private final CommandSender sender;
+    private final Scope scope;
+    private final ArrayDeque<PendingChunk> queue = new ArrayDeque<>();
+    private final int totalChunks;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicInteger doneChunks = new AtomicInteger();
+    private final AtomicLong removedSegments = new AtomicLong();
+    private final AtomicInteger pendingLoads = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    private ScheduledTask task;
+    private Runnable onFinish;
+    private int ticks;
+
+    public DeleteAllJob(RopesPlugin plugin, CommandSender sender, Scope scope) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.scope = scope;
+
+        RopeIndex index = plugin.getRopeIndex();
+        for (World world : plugin.getServer().getWorlds()) {
+            if (!scope.includesWorld(world)) continue;
+
+            // Statistics cover unloaded chunks; the index adds loaded chunks whose statistics lag behind
+            LongHashSet chunks = new LongHashSet();
+            for (long key : plugin.getRopeStats().getChunks(world)) {
+                chunks.add(key);
+            }
+            for (long key : index.getChunks(world)) {
+                chunks.add(key);
+            }
+            for (long key : chunks.toArray()) {
+                int chunkX = RopeIndex.chunkKeyX(key);
+                int chunkZ = RopeIndex.chunkKeyZ(key);
+                if (scope.includesChunk(chunkX, chunkZ)) {
+                    queue.add(new PendingChunk(world, chunkX, chunkZ));
+                }
+            }
+        }
+        totalChunks = queue.size();
+    }
+
+    /**
+     * Starts working through the queue.
+     *
+     * @param onFinish Run once the job completes or is cancelled
+     */
+    public void start(Runnable onFinish) {
+        this.onFinish = onFinish;
+        sender.sendMessage(Component.text("Deleting ropes in " + scope.description() + ": "
+            + totalChunks + " chunks queued.", NamedTextColor.YELLOW));
+        task = plugin.getScheduling().runTimer(scheduled -> tick(), 1);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Component status() {
+        return Component.text("Deleting ropes in " + scope.description() + ": " + doneChunks.get() + "/" + totalChunks
+            + " chunks, " + removedSegments.get() + " segments removed.", NamedTextColor.YELLOW);
+    }
+
+    private void tick() {
+        if (cancelled) {
+            finish("Cancelled deleting ropes in " + scope.description() + " after removing ");
+            return;
+        }
+
+        Config config = plugin.getConfiguration();
+        long deadline = System.nanoTime() + config.getDeleteAllTickBudgetMs() * 1_000_000L;
+        int maxChunks = config.getDeleteAllMaxChunksPerTick();
+        int handled = 0;
+
+        MutationQueue mutations = plugin.getMutations();
+        // Don't run ahead of the mutation queue, which clears chunks behind player actions
+        while (!queue.isEmpty() && handled < maxChunks && System.nanoTime() < deadline
+                && mutations.getDepth(MutationQueue.Priority.BULK) < maxChunks) {
+            PendingChunk chunk = queue.peek();
+            if (chunk.world.isChunkLoaded(chunk.chunkX, chunk.chunkZ)) {
+                queue.poll();
+                // Hold the chunk until its turn in the mutation queue comes
+                plugin.getScheduling().holdChunk(chunk.world, chunk.chunkX, chunk.chunkZ);
+                clear(chunk, 0);
+            } else {
+                if (pendingLoads.get() >= MAX_PENDING_LOADS) break;
+                queue.poll();
+                pendingLoads.incrementAndGet();
+                chunk.world.getChunkAtAsync(chunk.chunkX, chunk.chunkZ, false).whenComplete((loaded, error) -> {
+                    pendingLoads.decrementAndGet();
+                    if (loaded == null) {
+                        doneChunks.incrementAndGet();
+                        return;
+                    }
+                    plugin.getScheduling().holdChunk(chunk.world, chunk.chunkX, chunk.chunkZ);
+                    clear(chunk, 0);
+                });
+            }
+            handled++;
+        }
+
+        if (queue.isEmpty() && pendingLoads.get() == 0 && doneChunks.get() >= totalChunks) {
+            finish("Deleted ");
+            return;
+        }
+
+        if (++ticks % PROGRESS_INTERVAL_TICKS == 0) {
+            sender.sendMessage(status());
+        }
+    }
+
+    /**
+     * Clears a chunk held by this job, and lets go of it once done.
+     *
+     * @param waited Ticks already spent waiting for the chunk's entities to load
+     */
+    private void clear(PendingChunk chunk, int waited) {
+        plugin.getMutations().submit(MutationQueue.Priority.BULK, chunk.world, chunk.chunkX, chunk.chunkZ,
+            new ClearChunk(chunk, waited));
+    }
+
+    /**
+     * Clears one chunk as mutation queue work: its ropes a batch of blocks at a
+     * time, then any rope displays left over.
+     */
+    private class ClearChunk implements MutationQueue.Work {
+        private final PendingChunk chunk;
+        private final int waited;
+        private Iterator<Rope> ropes;
+        private MutationQueue.Work breaking;
+
+        ClearChunk(PendingChunk chunk, int waited) {
+            this.chunk = chunk;
+            this.waited = waited;
+        }
+
+        @Override
+        public boolean step() {
+            try {
+                if (ropes == null) {
+                    Chunk loaded = chunk.world.getChunkAt(chunk.chunkX, chunk.chunkZ);
+                    // Displays missed now would index themselves again when their entities load
+                    if (!cancelled && !loaded.isEntitiesLoaded() && waited < MAX_ENTITY_WAIT_TICKS) {
+                        plugin.getScheduling().runLaterAt(chunk.world, chunk.chunkX, chunk.chunkZ,
+                            () -> clear(chunk, waited + ENTITY_WAIT_TICKS), ENTITY_WAIT_TICKS);
+                        return false;
+                    }
+                    ropes = plugin.getRopeIndex().getChunkRopes(chunk.world, chunk.chunkX, chunk.chunkZ).iterator();
+                }
+
+                if (breaking != null && breaking.step()) return true;
+                breaking = nextRope();
+                if (breaking != null) return true;
+
+                if (!cancelled) {
+                    removeStrayDisplays();
+                }
+            } catch (RuntimeException e) {
+                done();
+                throw e;
+            }
+            done();
+            return false;
+        }
+
+        private MutationQueue.Work nextRope() {
+            while (!cancelled && ropes.hasNext()) {
+                Rope rope = ropes.next();
+                if (scope.includesColumn(rope.getX(), rope.getZ())) {
+                    return plugin.getRopes().breakInBatches(chunk.world, rope, removedSegments::addAndGet);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Removes displays left without a rope, which breaking the indexed ropes doesn't reach.
+         */
+        private void removeStrayDisplays() {
+            Display display = plugin.getDisplay();
+            for (Entity entity : chunk.world.getChunkAt(chunk.chunkX, chunk.chunkZ).getEntities()) {
+                if (display.isRopeDisplay(entity)) {
+                    Location loc = entity.getLocation();
+                    if (scope.includesColumn(loc.getBlockX(), loc.getBlockZ())) {
+                        entity.remove();
+                    }
+                }
+            }
+        }
+
+        private void done() {
+            plugin.getScheduling().releaseChunk(chunk.world, chunk.chunkX, chunk.chunkZ);
+            doneChunks.incrementAndGet();
+        }
+    }
+
+    private void finish(String prefix) {
+        task.cancel();
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        NamedTextColor color = cancelled ? NamedTextColor.YELLOW : NamedTextColor.GREEN;
+        sender.sendMessage(Component.text(prefix + removedSegments.get() + " rope segments from "
+            + doneChunks.get() + " chunks in " + String.format("%.1f", seconds) + "s.", color));
+        onFinish.run();
+    }
+}
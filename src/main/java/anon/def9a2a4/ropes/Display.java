@@ -10,6 +10,7 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Transformation;
 import org.joml.AxisAngle4f;
 import org.joml.Vector3f;
@@ -19,11 +20,22 @@ import java.util.UUID;
 
 public class Display {
     public static final String ROPE_DISPLAY_TAG = "ropes_display";
+    // Duration of a piston stroke
+    private static final int PISTON_MOVE_TICKS = 2;
 
     private final RopesPlugin plugin;
+    private ItemStack ropeDisplayItem;
 
     public Display(RopesPlugin plugin) {
         this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Rebuilds the cached display item from the current configuration.
+     */
+    public void reload() {
+        ropeDisplayItem = createRopeDisplayItem();
     }
 
     /**
@@ -41,9 +53,10 @@ public class Display {
         Config config = plugin.getConfiguration();
         Vector3f scale = config.getDisplayScale().toVector3f();
         float offsetY = config.getDisplayOffsetY();
+        boolean persistent = config.isPersistentDisplays();
 
         return world.spawn(spawnLoc, ItemDisplay.class, display -> {
-            display.setItemStack(createRopeDisplayItem());
+            display.setItemStack(ropeDisplayItem); // setItemStack stores its own copy
             display.setTransformation(new Transformation(
                 new Vector3f(0, offsetY, 0),    // translation with configurable Y offset
                 new AxisAngle4f(0, 0, 0, 1),    // left rotation
@@ -51,9 +64,160 @@ public class Display {
                 new AxisAngle4f(0, 0, 0, 1)     // right rotation
             ));
             display.addScoreboardTag(ROPE_DISPLAY_TAG);
+            display.setPersistent(persistent);
+            applyViewSettings(display);
         });
     }
 
+    /**
+     * Applies the configured view range, brightness and no shadow to a rope display.
+     * Also used on displays loaded from disk, which keep the settings they were spawned with.
+     */
+    public void applyViewSettings(ItemDisplay display) {
+        Config config = plugin.getConfiguration();
+        display.setViewRange(config.getDisplayViewRange());
+        display.setShadowRadius(0);
+        display.setShadowStrength(0);
+        int brightness = config.getDisplayBrightness();
+        display.setBrightness(brightness < 0 ? null : new org.bukkit.entity.Display.Brightness(brightness, brightness));
+    }
+
+    /**
+     * Updates displays after a rope block was placed.
+     * In per-block mode this spawns a display for the block; in merged mode it
+     * stretches the rope's single display to cover the new length.
+     */
+    public void onSegmentPlaced(World world, Rope rope, Location loc) {
+        if (plugin.getConfiguration().getDisplayMode() == Config.DisplayMode.PER_BLOCK) {
+            spawnRopeDisplay(loc);
+            return;
+        }
+
+        updateRopeDisplay(world, rope);
+
+        // The block joined a rope below it - that rope's display is now redundant
+        if (rope.getBottomY() < loc.getBlockY()) {
+            removeRopeDisplay(loc.clone().subtract(0, 1, 0));
+        }
+    }
+
+    /**
+     * Spawns all displays for a rope that has none, in the current display mode.
+     * Used to rebuild missing displays when a chunk's entities load.
+     */
+    public void spawnRopeDisplays(World world, Rope rope) {
+        if (plugin.getConfiguration().getDisplayMode() == Config.DisplayMode.MERGED) {
+            spawnMergedDisplay(rope.getTopLocation(world), rope.getLength());
+            return;
+        }
+        for (int y = rope.getTopY(); y >= rope.getBottomY(); y--) {
+            spawnRopeDisplay(new Location(world, rope.getX(), y, rope.getZ()));
+        }
+    }
+
+    /**
+     * Brings a rope's merged display in line with its current length,
+     * spawning it if missing. Does nothing in per-block mode.
+     */
+    public void updateRopeDisplay(World world, Rope rope) {
+        if (plugin.getConfiguration().getDisplayMode() != Config.DisplayMode.MERGED) return;
+
+        Location top = rope.getTopLocation(world);
+        ItemDisplay display = findRopeDisplay(top);
+        if (display == null) {
+            spawnMergedDisplay(top, rope.getLength());
+        } else {
+            display.setInterpolationDelay(0);
+            display.setTransformation(createMergedTransformation(rope.getLength()));
+        }
+    }
+
+    /**
+     * Spawns a single display entity covering a whole rope, hanging down from the top block.
+     */
+    private ItemDisplay spawnMergedDisplay(Location top, int length) {
+        World world = top.getWorld();
+        if (world == null) return null;
+
+        Location spawnLoc = top.getBlock().getLocation().add(0.5, 0.5, 0.5);
+        Config config = plugin.getConfiguration();
+        boolean persistent = config.isPersistentDisplays();
+
+        return world.spawn(spawnLoc, ItemDisplay.class, display -> {
+            display.setItemStack(ropeDisplayItem); // setItemStack stores its own copy
+            display.setTransformation(createMergedTransformation(length));
+            // Smooth out growth while the rope unfurls
+            if (config.isAnimationEnabled()) {
+                display.setInterpolationDuration(config.getAnimationTicksPerBlock());
+            }
+            display.addScoreboardTag(ROPE_DISPLAY_TAG);
+            display.setPersistent(persistent);
+            applyViewSettings(display);
+        });
+    }
+
+    /**
+     * Stretches the per-block scale over the rope length and centers it on the rope.
+     */
+    private Transformation createMergedTransformation(int length) {
+        Config config = plugin.getConfiguration();
+        Config.DisplayScale scale = config.getDisplayScale();
+        // Segment i (0 = top) would be centered at offsetY - i; the merged display sits at their average
+        float offsetY = config.getDisplayOffsetY() - (length - 1) / 2f;
+
+        return new Transformation(
+            new Vector3f(0, offsetY, 0),
+            new AxisAngle4f(0, 0, 0, 1),
+            new Vector3f(scale.x(), scale.y() * length, scale.z()),
+            new AxisAngle4f(0, 0, 0, 1)
+        );
+    }
+
+    /**
+     * Removes every rope display along a rope's column with a single entity query.
+     * Works for both per-block and merged displays.
+     * Returns the count of removed displays.
+     */
+    public int removeRopeDisplays(World world, Rope rope) {
+        Collection<Entity> displays = findRopeDisplays(world, rope);
+        for (Entity entity : displays) {
+            entity.remove();
+        }
+        return displays.size();
+    }
+
+    /**
+     * Finds every rope display along a rope's column with a single entity query.
+     * Works for both per-block and merged displays.
+     */
+    public Collection<Entity> findRopeDisplays(World world, Rope rope) {
+        BoundingBox column = new BoundingBox(
+            rope.getX() + 0.4, rope.getBottomY() - 0.1, rope.getZ() + 0.4,
+            rope.getX() + 0.6, rope.getTopY() + 1.1, rope.getZ() + 0.6
+        );
+        return world.getNearbyEntities(column, this::isRopeDisplay);
+    }
+
+    /**
+     * Moves every rope display along a rope's column by a block offset, with a
+     * single entity query. Displays glide over the piston's two-tick stroke.
+     * Returns the count of moved displays.
+     */
+    public int moveRopeDisplays(World world, Rope rope, int dx, int dy, int dz) {
+        BoundingBox column = new BoundingBox(
+            rope.getX() + 0.4, rope.getBottomY() - 0.1, rope.getZ() + 0.4,
+            rope.getX() + 0.6, rope.getTopY() + 1.1, rope.getZ() + 0.6
+        );
+
+        int moved = 0;
+        for (Entity entity : world.getNearbyEntities(column, this::isRopeDisplay)) {
+            ((ItemDisplay) entity).setTeleportDuration(PISTON_MOVE_TICKS);
+            entity.teleportAsync(entity.getLocation().add(dx, dy, dz));
+            moved++;
+        }
+        return moved;
+    }
+
     /**
      * Removes the rope display entity at the given location.
      * Returns true if a display was found and removed.
@@ -125,14 +289,25 @@ public class Display {
 
     /**
      * Creates the item stack used for rope display entities.
-     * This is a player head with the configured rope texture.
+     * This is a player head with the configured rope texture, or with the resource
+     * pack's item model and no profile when the pack is enabled. Built once per
+     * config load and shared by every display.
      */
     private ItemStack createRopeDisplayItem() {
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) head.getItemMeta();
 
-        PlayerProfile profile = Bukkit.createProfile(UUID.randomUUID());
-        profile.setProperty(new ProfileProperty("textures", plugin.getConfiguration().getRopeBlockDisplayTexture()));
+        if (plugin.getConfiguration().isResourcePackEnabled()) {
+            meta.setItemModel(ResourcePack.DISPLAY_MODEL);
+            head.setItemMeta(meta);
+            return head;
+        }
+
+        // Deterministic UUID so every display carries the same profile
+        String texture = plugin.getConfiguration().getRopeBlockDisplayTexture();
+        UUID profileUuid = new UUID(0x526F706544697370L, texture.hashCode()); // "RopeDisp" + texture hash
+        PlayerProfile profile = Bukkit.createProfile(profileUuid);
+        profile.setProperty(new ProfileProperty("textures", texture));
         meta.setPlayerProfile(profile);
 
         head.setItemMeta(meta);
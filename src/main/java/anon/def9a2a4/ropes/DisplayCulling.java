@@ -0,0 +1,181 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player culling of rope displays.
+ *
+ * Every few ticks each player's nearby rope displays are split into shown and
+ * hidden with {@link Player#hideEntity} and {@link Player#showEntity}: displays
+ * beyond the hide distance are hidden, and in per-block mode only every Nth
+ * segment is kept beyond the LOD distance. Hidden displays are not sent to that
+ * player at all, which saves both tracker work and client frame time.
+ *
+ * The displays hidden from each player are remembered, and every pass checks
+ * them for showing again wherever they are, without a query. New displays to
+ * hide are looked for with one entity query, run on the player's own thread,
+ * only once the player has moved {@value #RESCAN_DISTANCE} blocks or ropes
+ * around them have changed.
+ */
+public class DisplayCulling {
+    // How far past the hide distance displays are looked at, so they are hidden before coming into view
+    private static final int SCAN_MARGIN = 16;
+    // How far a player moves before displays around them are looked at again
+    private static final int RESCAN_DISTANCE = 8;
+
+    private final RopesPlugin plugin;
+    private final Display display;
+    private final RopeIndex index;
+    private final Scheduling scheduling;
+    private final Map<UUID, Viewer> viewers = new ConcurrentHashMap<>();
+    private ScheduledTask task;
+
+    public DisplayCulling(RopesPlugin plugin, Display display, RopeIndex index, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.display = display;
+        this.index = index;
+        this.scheduling = scheduling;
+    }
+
+    /**
+     * Starts the culling pass if it is enabled in the configuration.
+     */
+    public void start() {
+        Config config = plugin.getConfiguration();
+        if (task != null || !config.isCullingEnabled()) return;
+
+        task = scheduling.runTimer(scheduled -> {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                scheduling.runFor(player, () -> cull(player));
+            }
+        }, config.getCullingIntervalTicks());
+    }
+
+    /**
+     * Stops the culling pass and shows every display it hid from online players.
+     */
+    public void stop() {
+        if (task == null) return;
+        task.cancel();
+        task = null;
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Viewer viewer = viewers.remove(player.getUniqueId());
+            if (viewer != null) {
+                scheduling.runFor(player, () -> reveal(player, viewer));
+            }
+        }
+        viewers.clear();
+    }
+
+    /**
+     * Drops what is known about a player who left; their client forgets hidden entities with them.
+     */
+    public void forget(Player player) {
+        viewers.remove(player.getUniqueId());
+    }
+
+    private void cull(Player player) {
+        if (!player.isOnline()) return;
+
+        Config config = plugin.getConfiguration();
+        int hideDistance = config.getCullingHideDistance();
+        int lodDistance = config.getCullingLodDistance();
+        int lodStep = config.getCullingLodStep();
+        boolean perBlock = config.getDisplayMode() == Config.DisplayMode.PER_BLOCK;
+        double hideSquared = (double) hideDistance * hideDistance;
+        double lodSquared = (double) lodDistance * lodDistance;
+        int scan = hideDistance + SCAN_MARGIN;
+
+        Viewer viewer = viewers.computeIfAbsent(player.getUniqueId(), id -> new Viewer());
+        Location eye = player.getEyeLocation();
+
+        // Show hidden displays that came back into range; removed or unloaded ones are let go
+        Iterator<Entity> hidden = viewer.hidden.iterator();
+        while (hidden.hasNext()) {
+            Entity entity = hidden.next();
+            if (!entity.isValid() || isVisible(entity.getLocation(), eye, hideSquared, perBlock, lodDistance, lodSquared, lodStep)) {
+                player.showEntity(plugin, entity);
+                hidden.remove();
+            }
+        }
+
+        if (!needsScan(viewer, eye, scan)) return;
+        for (Entity entity : eye.getWorld().getNearbyEntities(eye, scan, scan, scan, display::isRopeDisplay)) {
+            if (!isVisible(entity.getLocation(), eye, hideSquared, perBlock, lodDistance, lodSquared, lodStep)
+                    && viewer.hidden.add(entity)) {
+                player.hideEntity(plugin, entity);
+            }
+        }
+    }
+
+    private static boolean isVisible(Location loc, Location eye, double hideSquared, boolean perBlock,
+                                     int lodDistance, double lodSquared, int lodStep) {
+        if (loc.getWorld() != eye.getWorld()) return false;
+        double distanceSquared = loc.distanceSquared(eye);
+        return distanceSquared <= hideSquared
+            && (!perBlock || lodDistance <= 0 || distanceSquared <= lodSquared
+                || Math.floorMod(loc.getBlockY(), lodStep) == 0);
+    }
+
+    /**
+     * Whether the player has moved far enough, or ropes around them changed, since displays were last looked for.
+     */
+    private boolean needsScan(Viewer viewer, Location eye, int scan) {
+        World world = eye.getWorld();
+        int x = eye.getBlockX();
+        int y = eye.getBlockY();
+        int z = eye.getBlockZ();
+
+        if (world.getUID().equals(viewer.worldId) && Math.abs(x - viewer.x) < RESCAN_DISTANCE
+                && Math.abs(y - viewer.y) < RESCAN_DISTANCE && Math.abs(z - viewer.z) < RESCAN_DISTANCE) {
+            long worldEpoch = index.getWorldEpoch(world);
+            if (worldEpoch == viewer.worldEpoch) return false;
+            viewer.worldEpoch = worldEpoch;
+            long areaEpoch = index.getAreaEpoch(world, viewer.x - scan, viewer.z - scan, viewer.x + scan, viewer.z + scan);
+            if (areaEpoch == viewer.areaEpoch) return false;
+            viewer.areaEpoch = areaEpoch;
+            return true;
+        }
+
+        viewer.worldId = world.getUID();
+        viewer.x = x;
+        viewer.y = y;
+        viewer.z = z;
+        viewer.worldEpoch = index.getWorldEpoch(world);
+        viewer.areaEpoch = index.getAreaEpoch(world, x - scan, z - scan, x + scan, z + scan);
+        return true;
+    }
+
+    private void reveal(Player player, Viewer viewer) {
+        if (!player.isOnline()) return;
+        for (Entity entity : viewer.hidden) {
+            player.showEntity(plugin, entity);
+        }
+    }
+
+    /**
+     * What culling knows about one player. Only touched on that player's thread.
+     */
+    private static class Viewer {
+        final Set<Entity> hidden = new HashSet<>();
+        // Where displays were last looked for
+        UUID worldId;
+        int x;
+        int y;
+        int z;
+        long worldEpoch;
+        long areaEpoch;
+    }
+}
@@ -13,7 +13,6 @@ import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
 import java.net.URL;
@@ -27,11 +26,42 @@ public class Items {
     private final NamespacedKey ARROW_ROPE_LENGTH_KEY;
     private final MiniMessage miniMessage;
 
+    // Prebuilt coils and arrows indexed by length (index 0 unused), so callers only pay for a clone
+    private volatile ItemStack[] coilTemplates = new ItemStack[0];
+    private volatile ItemStack[] arrowTemplates = new ItemStack[0];
+    private volatile int generation;
+
     public Items(RopesPlugin plugin) {
         this.plugin = plugin;
         this.ROPE_LENGTH_KEY = new NamespacedKey(plugin, "rope_length");
         this.ARROW_ROPE_LENGTH_KEY = new NamespacedKey(plugin, "arrow_rope_length");
         this.miniMessage = MiniMessage.miniMessage();
+        reload();
+    }
+
+    /**
+     * Rebuilds the coil and arrow templates for every length up to the maximum
+     * coil length. Call after the configuration changes.
+     */
+    public void reload() {
+        int maxLength = plugin.getConfiguration().getRopeCoilMaxLength();
+        ItemStack[] coils = new ItemStack[maxLength + 1];
+        ItemStack[] arrows = new ItemStack[maxLength + 1];
+        for (int length = 1; length <= maxLength; length++) {
+            coils[length] = buildRopeCoil(length);
+            arrows[length] = buildRopeArrow(length);
+        }
+        coilTemplates = coils;
+        arrowTemplates = arrows;
+        generation++;
+    }
+
+    /**
+     * Returns a number that changes every time the templates are rebuilt, so
+     * results cached from them can tell they are stale.
+     */
+    public int getGeneration() {
+        return generation;
     }
 
     /**
@@ -53,11 +83,18 @@ public class Items {
     }
 
     public ItemStack createRopeCoil(int meters) {
+        ItemStack[] templates = coilTemplates;
+        if (meters > 0 && meters < templates.length) {
+            return templates[meters].clone();
+        }
+        return buildRopeCoil(meters);
+    }
+
+    private ItemStack buildRopeCoil(int meters) {
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) head.getItemMeta();
 
-        // Set custom texture using URL extraction (works for recipe book display)
-        applyTextureFromBase64(meta, plugin.getConfiguration().getHeadTexture(), meters);
+        applyCoilAppearance(meta, meters);
 
         // Get item config
         Config.ItemDisplayConfig itemConfig = plugin.getConfiguration().getRopeCoilItemConfig();
@@ -81,6 +118,19 @@ public class Items {
         return head;
     }
 
+    /**
+     * Makes a coil render through the resource pack's item model when the pack is
+     * enabled, or through the configured head texture otherwise.
+     */
+    private void applyCoilAppearance(SkullMeta meta, int ropeLength) {
+        if (plugin.getConfiguration().isResourcePackEnabled()) {
+            meta.setItemModel(ResourcePack.COIL_MODEL);
+        } else {
+            // Set custom texture using URL extraction (works for recipe book display)
+            applyTextureFromBase64(meta, plugin.getConfiguration().getHeadTexture(), ropeLength);
+        }
+    }
+
     /**
      * Applies a custom texture to a player head from a Base64-encoded texture value.
      * Extracts the skin URL from the base64 JSON and uses setOwnerProfile for proper
@@ -121,26 +171,28 @@ public class Items {
         }
     }
 
+    // The lookups below read the item's data through a read-only view instead of copying its meta
+
     public int getRopeLength(ItemStack item) {
         if (item == null || !item.hasItemMeta()) return 0;
-        PersistentDataContainer pdc = item.getItemMeta().getPersistentDataContainer();
-        return pdc.getOrDefault(ROPE_LENGTH_KEY, PersistentDataType.INTEGER, 0);
+        return item.getPersistentDataContainer().getOrDefault(ROPE_LENGTH_KEY, PersistentDataType.INTEGER, 0);
     }
 
     public boolean isRopeCoil(ItemStack item) {
         if (item == null || item.getType() != Material.PLAYER_HEAD) return false;
         if (!item.hasItemMeta()) return false;
-        return item.getItemMeta().getPersistentDataContainer().has(ROPE_LENGTH_KEY, PersistentDataType.INTEGER);
+        return item.getPersistentDataContainer().has(ROPE_LENGTH_KEY, PersistentDataType.INTEGER);
     }
 
-    public ItemStack combineCoils(ItemStack coil1, ItemStack coil2) {
-        int length1 = getRopeLength(coil1);
-        int length2 = getRopeLength(coil2);
-        int combined = Math.min(length1 + length2, plugin.getConfiguration().getRopeCoilMaxLength());
-        return createRopeCoil(combined);
+    public ItemStack createRopeArrow(int ropeLength) {
+        ItemStack[] templates = arrowTemplates;
+        if (ropeLength > 0 && ropeLength < templates.length) {
+            return templates[ropeLength].clone();
+        }
+        return buildRopeArrow(ropeLength);
     }
 
-    public ItemStack createRopeArrow(int ropeLength) {
+    private ItemStack buildRopeArrow(int ropeLength) {
         ItemStack arrow = new ItemStack(Material.ARROW);
         ItemMeta meta = arrow.getItemMeta();
 
@@ -184,7 +236,7 @@ public class Items {
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) head.getItemMeta();
 
-        applyTextureFromBase64(meta, plugin.getConfiguration().getHeadTexture(), meters);
+        applyCoilAppearance(meta, meters);
 
         Config.ItemDisplayConfig itemConfig = plugin.getConfiguration().getRopeCoilItemConfig();
         TagResolver metersPlaceholder = Placeholder.unparsed("meters", String.valueOf(meters));
@@ -210,7 +262,7 @@ public class Items {
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) head.getItemMeta();
 
-        applyTextureFromBase64(meta, plugin.getConfiguration().getHeadTexture(), 0);
+        applyCoilAppearance(meta, 0);
 
         meta.displayName(parseText("<gold>Combined Rope Coil"));
         meta.lore(List.of(parseText("<gray>Combine any two rope coils")));
@@ -248,13 +300,12 @@ public class Items {
     public boolean isRopeArrow(ItemStack item) {
         if (item == null || item.getType() != Material.ARROW) return false;
         if (!item.hasItemMeta()) return false;
-        return item.getItemMeta().getPersistentDataContainer().has(ARROW_ROPE_LENGTH_KEY, PersistentDataType.INTEGER);
+        return item.getPersistentDataContainer().has(ARROW_ROPE_LENGTH_KEY, PersistentDataType.INTEGER);
     }
 
     public int getArrowRopeLength(ItemStack item) {
         if (item == null || !item.hasItemMeta()) return 0;
-        PersistentDataContainer pdc = item.getItemMeta().getPersistentDataContainer();
-        return pdc.getOrDefault(ARROW_ROPE_LENGTH_KEY, PersistentDataType.INTEGER, 0);
+        return item.getPersistentDataContainer().getOrDefault(ARROW_ROPE_LENGTH_KEY, PersistentDataType.INTEGER, 0);
     }
 
     public NamespacedKey getRopeLengthKey() {
@@ -1,13 +1,17 @@
 package anon.def9a2a4.ropes;
 
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.Particle;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.type.Fence;
 import org.bukkit.entity.Arrow;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -24,28 +28,44 @@ import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerAdvancementDoneEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.CraftingInventory;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.util.Vector;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Listeners implements Listener {
     private final RopesPlugin plugin;
     private final Items items;
     private final Ropes ropes;
+    private final Display display;
+    private final RopeIndex index;
+    private final RopeStats stats;
+    private final Storage storage;
     private final Config config;
+    // Last crafting grid and result per player
+    private final Map<UUID, CraftResult> craftResults = new ConcurrentHashMap<>();
 
     public Listeners(RopesPlugin plugin) {
         this.plugin = plugin;
         this.items = plugin.getItems();
         this.ropes = plugin.getRopes();
+        this.display = plugin.getDisplay();
+        this.index = plugin.getRopeIndex();
+        this.stats = plugin.getRopeStats();
+        this.storage = plugin.getStorage();
         this.config = plugin.getConfiguration();
     }
 
@@ -57,62 +77,126 @@ public class Listeners implements Listener {
         ItemStack result = inv.getResult();
         if (result == null) return;
 
+        // Only coil combining (head result) and rope arrows (arrow result) are ours
+        Material resultType = result.getType();
+        if (resultType != Material.PLAYER_HEAD && resultType != Material.ARROW) return;
+
+        // Both recipes take a coil, and coils are player heads
         ItemStack[] matrix = inv.getMatrix();
+        boolean hasHead = false;
+        for (ItemStack item : matrix) {
+            if (item != null && item.getType() == Material.PLAYER_HEAD) {
+                hasHead = true;
+                break;
+            }
+        }
+        if (!hasHead) return;
+
+        // Reuse the last result while the player's grid is unchanged, checking cheap fields before item data
+        UUID viewer = event.getView().getPlayer().getUniqueId();
+        CraftResult cached = craftResults.get(viewer);
+        if (cached == null || !sameKey(cached.key(), result, matrix) || !sameHeads(cached.heads(), matrix)) {
+            cached = computeCraftResult(craftKey(result, matrix), result, matrix);
+            craftResults.put(viewer, cached);
+        }
+        if (cached.replace()) {
+            // The inventory copies the item, so the cached stack is never handed out
+            inv.setResult(cached.result());
+        }
+    }
 
-        // Check for rope coil combine recipe (result is player head)
-        if (result.getType() == Material.PLAYER_HEAD) {
-            List<ItemStack> coils = new ArrayList<>();
-            for (ItemStack item : matrix) {
-                if (item != null && items.isRopeCoil(item)) {
-                    coils.add(item);
-                }
+    /**
+     * What a crafting grid produces.
+     *
+     * @param key The grid's {@link #craftKey}
+     * @param heads Copies of the player heads in the grid by slot, which carry the coil data
+     * @param replace Whether to replace the vanilla result with {@code result}
+     */
+    private record CraftResult(int[] key, ItemStack[] heads, boolean replace, ItemStack result) {}
+
+    /**
+     * The fields of a grid that are cheap to read: the item template generation,
+     * the result type, and each slot's material and amount.
+     */
+    private int[] craftKey(ItemStack result, ItemStack[] matrix) {
+        int[] key = new int[2 + matrix.length * 2];
+        key[0] = items.getGeneration();
+        key[1] = result.getType().ordinal();
+        for (int i = 0; i < matrix.length; i++) {
+            ItemStack item = matrix[i];
+            if (item == null) continue;
+            key[2 + i * 2] = item.getType().ordinal() + 1;
+            key[3 + i * 2] = item.getAmount();
+        }
+        return key;
+    }
+
+    /**
+     * Whether a grid has the given {@link #craftKey}, compared field by field so
+     * that a cache hit allocates nothing.
+     */
+    private boolean sameKey(int[] key, ItemStack result, ItemStack[] matrix) {
+        if (key.length != 2 + matrix.length * 2) return false;
+        if (key[0] != items.getGeneration() || key[1] != result.getType().ordinal()) return false;
+        for (int i = 0; i < matrix.length; i++) {
+            ItemStack item = matrix[i];
+            int type = item == null ? 0 : item.getType().ordinal() + 1;
+            int amount = item == null ? 0 : item.getAmount();
+            if (key[2 + i * 2] != type || key[3 + i * 2] != amount) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether each player head in a grid matches the cached one in its slot. Only
+     * called once the keys match, so both grids have heads in the same slots.
+     */
+    private static boolean sameHeads(ItemStack[] heads, ItemStack[] matrix) {
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[i] != null && !heads[i].isSimilar(matrix[i])) return false;
+        }
+        return true;
+    }
+
+    private CraftResult computeCraftResult(int[] key, ItemStack result, ItemStack[] matrix) {
+        ItemStack[] heads = new ItemStack[matrix.length];
+        int headCount = 0;
+        int coils = 0;
+        int firstLength = 0;
+        int secondLength = 0;
+        for (int i = 0; i < matrix.length; i++) {
+            ItemStack item = matrix[i];
+            if (item == null || item.getType() != Material.PLAYER_HEAD) continue;
+            heads[i] = item.clone();
+            headCount++;
+            if (!items.isRopeCoil(item)) continue;
+            coils++;
+            if (coils == 1) {
+                firstLength = items.getRopeLength(item);
+            } else if (coils == 2) {
+                secondLength = items.getRopeLength(item);
             }
+        }
 
-            // If we have exactly 2 rope coils, this is a combine recipe
-            if (coils.size() == 2) {
-                ItemStack combined = items.combineCoils(coils.get(0), coils.get(1));
-                inv.setResult(combined);
-            } else if (coils.size() == 1) {
+        // Rope coil combine recipe (result is player head)
+        if (result.getType() == Material.PLAYER_HEAD) {
+            if (coils == 2) {
+                int combined = Math.min(firstLength + secondLength, config.getRopeCoilMaxLength());
+                return new CraftResult(key, heads, true, items.createRopeCoil(combined));
+            }
+            if (coils == 1 && headCount > 1) {
                 // Single coil with other player heads that aren't coils - invalid
-                // Check if there are other player heads
-                int playerHeadCount = 0;
-                for (ItemStack item : matrix) {
-                    if (item != null && item.getType() == Material.PLAYER_HEAD) {
-                        playerHeadCount++;
-                    }
-                }
-                if (playerHeadCount > 1) {
-                    // Mixed player heads - cancel
-                    inv.setResult(null);
-                }
-            } else if (coils.isEmpty()) {
-                // No coils but result is player head - might be a different recipe
-                // Check if any player heads in matrix aren't coils
-                boolean hasNonCoilHead = false;
-                for (ItemStack item : matrix) {
-                    if (item != null && item.getType() == Material.PLAYER_HEAD && !items.isRopeCoil(item)) {
-                        hasNonCoilHead = true;
-                        break;
-                    }
-                }
-                if (hasNonCoilHead) {
-                    // This is some other player head recipe, not ours
-                    return;
-                }
+                return new CraftResult(key, heads, true, null);
             }
+            // No coils: some other player head recipe, not ours
+            return new CraftResult(key, heads, false, null);
         }
 
-        // Check for rope arrow recipe (result is arrow)
-        if (result.getType() == Material.ARROW && items.isRopeArrow(result)) {
-            // Find the rope coil in the matrix to get its length
-            for (ItemStack item : matrix) {
-                if (item != null && items.isRopeCoil(item)) {
-                    int ropeLength = items.getRopeLength(item);
-                    inv.setResult(items.createRopeArrow(ropeLength));
-                    break;
-                }
-            }
+        // Rope arrow recipe (result is arrow), taking its length from the coil
+        if (items.isRopeArrow(result) && coils > 0) {
+            return new CraftResult(key, heads, true, items.createRopeArrow(firstLength));
         }
+        return new CraftResult(key, heads, false, null);
     }
 
     // ==================== PLAYER INTERACT ====================
@@ -129,13 +213,11 @@ public class Listeners implements Listener {
 
         // LEFT CLICK - Break rope
         if (event.getAction() == Action.LEFT_CLICK_BLOCK) {
-            if (ropes.isRopeBlock(blockLoc)) {
+            Rope rope = ropes.getRope(clickedBlock.getWorld(), clickedBlock.getX(), clickedBlock.getY(), clickedBlock.getZ());
+            if (rope != null) {
                 event.setCancelled(true);
-
-                int length = ropes.breakRope(blockLoc);
-                if (length > 0) {
-                    ropes.dropRopeCoils(blockLoc.clone().add(0.5, 0.5, 0.5), length);
-                }
+                ropes.breakAndDrop(clickedBlock.getWorld(), rope, blockLoc.clone().add(0.5, 0.5, 0.5),
+                    MutationQueue.Priority.PLAYER);
             }
             return;
         }
@@ -161,20 +243,17 @@ public class Listeners implements Listener {
                         // Refund unused rope
                         int unused = coilLength - added;
                         if (unused > 0) {
-                            ItemStack refund = items.createRopeCoil(unused);
-                            player.getInventory().addItem(refund).values()
-                                .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
+                            refundRope(player, unused);
                         }
                     });
                 } else {
-                    int added = ropes.extendRope(blockLoc, coilLength);
-                    // Refund unused rope
-                    int unused = coilLength - added;
-                    if (unused > 0) {
-                        ItemStack refund = items.createRopeCoil(unused);
-                        player.getInventory().addItem(refund).values()
-                            .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
-                    }
+                    ropes.extendRopeAsync(blockLoc, coilLength, added -> {
+                        // Refund unused rope
+                        int unused = coilLength - added;
+                        if (unused > 0) {
+                            refundRope(player, unused);
+                        }
+                    });
                 }
                 return;
             }
@@ -222,20 +301,17 @@ public class Listeners implements Listener {
                         // Refund unused rope
                         int unused = coilLength - added;
                         if (unused > 0) {
-                            ItemStack refund = items.createRopeCoil(unused);
-                            player.getInventory().addItem(refund).values()
-                                .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
+                            refundRope(player, unused);
                         }
                     });
                 } else {
-                    int added = ropes.extendRope(targetBlock.getLocation(), coilLength);
-                    // Refund unused rope
-                    int unused = coilLength - added;
-                    if (unused > 0) {
-                        ItemStack refund = items.createRopeCoil(unused);
-                        player.getInventory().addItem(refund).values()
-                            .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
-                    }
+                    ropes.extendRopeAsync(targetBlock.getLocation(), coilLength, added -> {
+                        // Refund unused rope
+                        int unused = coilLength - added;
+                        if (unused > 0) {
+                            refundRope(player, unused);
+                        }
+                    });
                 }
                 return;
             }
@@ -251,24 +327,33 @@ public class Listeners implements Listener {
                     // Refund unused rope
                     int unused = coilLength - placed;
                     if (unused > 0) {
-                        ItemStack refund = items.createRopeCoil(unused);
-                        player.getInventory().addItem(refund).values()
-                            .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
+                        refundRope(player, unused);
                     }
                 });
             } else {
-                int placed = ropes.placeRope(targetBlock.getLocation(), coilLength);
-                // Refund unused rope
-                int unused = coilLength - placed;
-                if (unused > 0) {
-                    ItemStack refund = items.createRopeCoil(unused);
-                    player.getInventory().addItem(refund).values()
-                        .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
-                }
+                ropes.placeRopeAsync(targetBlock.getLocation(), coilLength, placed -> {
+                    // Refund unused rope
+                    int unused = coilLength - placed;
+                    if (unused > 0) {
+                        refundRope(player, unused);
+                    }
+                });
             }
         }
     }
 
+    /**
+     * Gives unused rope back to a player, on the player's own thread since
+     * animated placements finish on the thread of the rope's region.
+     */
+    private void refundRope(Player player, int unused) {
+        plugin.getScheduling().runFor(player, () -> {
+            ItemStack refund = items.createRopeCoil(unused);
+            player.getInventory().addItem(refund).values()
+                .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
+        });
+    }
+
     private void consumeItemInHand(Player player) {
         ItemStack item = player.getInventory().getItemInMainHand();
         if (item.getAmount() > 1) {
@@ -307,10 +392,8 @@ public class Listeners implements Listener {
         if (ropes.isRopeBlock(aboveLoc)) return; // Not the anchor
 
         // This is the anchor - break the entire rope
-        int length = ropes.breakRope(belowLoc);
-        if (length > 0) {
-            ropes.dropRopeCoils(belowLoc.clone().add(0.5, 0.5, 0.5), length);
-        }
+        ropes.breakAndDrop(belowBlock.getWorld(), ropes.getRope(belowLoc), belowLoc.clone().add(0.5, 0.5, 0.5),
+            MutationQueue.Priority.PLAYER);
     }
 
     // ==================== EXPLOSIONS ====================
@@ -326,107 +409,195 @@ public class Listeners implements Listener {
     }
 
     private void handleExplosion(List<Block> blockList, Location explosionLoc) {
-        Set<Location> processedAnchors = new HashSet<>();
-        List<Block> toRemove = new ArrayList<>();
-
-        for (Block block : blockList) {
-            Location loc = block.getLocation();
-            if (ropes.isRopeBlock(loc)) {
-                toRemove.add(block);
-
-                // Find anchor and process if not already done
-                Location anchor = ropes.findRopeAnchor(loc);
-                if (anchor != null && !processedAnchors.contains(anchor)) {
-                    processedAnchors.add(anchor);
-                    int length = ropes.breakRope(loc);
-                    if (length > 0) {
-                        ropes.dropRopeCoils(anchor.clone().add(0.5, 0.5, 0.5), length);
-                    }
-                }
-            }
-        }
+        LongHashSet ropeBlocks = new LongHashSet();
+        LongObjectMap<Rope> hit = findRopesIn(blockList, ropeBlocks);
+        if (hit.isEmpty()) return;
 
         // Remove rope blocks from explosion list to prevent double handling
-        blockList.removeAll(toRemove);
+        blockList.removeIf(block -> ropeBlocks.contains(RopeIndex.pack(block.getX(), block.getY(), block.getZ())));
+
+        // Ropes break through the mutation queue, so a huge blast spreads its rope work over ticks
+        World world = explosionLoc.getWorld();
+        hit.forEachValue(rope -> ropes.breakAndDrop(world, rope, rope.getTopLocation(world).add(0.5, 0.5, 0.5),
+            MutationQueue.Priority.WORLD));
     }
 
     // ==================== PISTONS ====================
 
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onPistonExtend(BlockPistonExtendEvent event) {
-        handlePiston(event.getBlocks());
+        handlePiston(event.getBlocks(), event.getDirection());
     }
 
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onPistonRetract(BlockPistonRetractEvent event) {
-        handlePiston(event.getBlocks());
+        handlePiston(event.getBlocks(), event.getDirection());
     }
 
-    private void handlePiston(List<Block> blocks) {
-        Set<Location> processedAnchors = new HashSet<>();
+    /**
+     * @param direction The direction the blocks are moving
+     */
+    private void handlePiston(List<Block> blocks, BlockFace direction) {
+        if (config.getPistonBehavior() == Config.PistonBehavior.MOVE) {
+            moveRopesWith(blocks, direction);
+        } else {
+            breakRopesIn(blocks);
+        }
+    }
 
+    /**
+     * Moves ropes the piston carries whole, and breaks ropes it only partly catches.
+     */
+    private void moveRopesWith(List<Block> blocks, BlockFace direction) {
+        if (blocks.isEmpty()) return;
+
+        World world = blocks.get(0).getWorld();
+        Material chainMaterial = config.getChainMaterial();
+        LongObjectMap<Rope> byColumn = new LongObjectMap<>();
+        // Ropes hit, keyed by their anchor, with how many of their blocks move
+        LongObjectMap<CaughtRope> hit = new LongObjectMap<>();
         for (Block block : blocks) {
-            Location loc = block.getLocation();
-            if (ropes.isRopeBlock(loc)) {
-                Location anchor = ropes.findRopeAnchor(loc);
-                if (anchor != null && !processedAnchors.contains(anchor)) {
-                    processedAnchors.add(anchor);
-                    int length = ropes.breakRope(loc);
-                    if (length > 0) {
-                        ropes.dropRopeCoils(anchor.clone().add(0.5, 0.5, 0.5), length);
-                    }
-                }
+            Rope rope = resolveRope(world, block, byColumn, chainMaterial);
+            if (rope == null) continue;
+
+            long anchor = RopeIndex.pack(rope.getX(), rope.getTopY(), rope.getZ());
+            hit.computeIfAbsent(anchor, key -> new CaughtRope(rope)).blocks++;
+        }
+        if (hit.isEmpty()) return;
+
+        List<Rope> whole = new ArrayList<>(hit.size());
+        hit.forEachValue(caught -> {
+            if (caught.blocks == caught.rope.getLength()) {
+                whole.add(caught.rope);
+            } else {
+                Location anchor = caught.rope.getTopLocation(world).add(0.5, 0.5, 0.5);
+                ropes.queueRopeCoils(anchor, ropes.breakRope(world, caught.rope));
             }
+        });
+        ropes.moveRopes(world, whole, direction);
+    }
+
+    private static class CaughtRope {
+        final Rope rope;
+        int blocks;
+
+        CaughtRope(Rope rope) {
+            this.rope = rope;
         }
     }
 
-    // ==================== CLIMBING ====================
+    /**
+     * Breaks every rope with a block in the list right away; their coils drop together at the end of the tick.
+     * Pistons move the blocks as soon as the event returns, so this can't wait for the mutation queue.
+     */
+    private void breakRopesIn(List<Block> blocks) {
+        LongObjectMap<Rope> hit = findRopesIn(blocks, null);
+        if (hit.isEmpty()) return;
+
+        World world = blocks.get(0).getWorld();
+        hit.forEachValue(rope -> {
+            Location anchor = rope.getTopLocation(world).add(0.5, 0.5, 0.5);
+            ropes.queueRopeCoils(anchor, ropes.breakRope(world, rope));
+        });
+    }
 
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onPlayerMove(PlayerMoveEvent event) {
-        Player player = event.getPlayer();
-        Location playerLoc = player.getLocation();
+    /**
+     * Finds the ropes with a block in the list, each once however many of its blocks are listed.
+     *
+     * @param ropeBlocks If not null, receives the packed coordinates of the listed rope blocks
+     * @return The ropes hit, keyed by their packed anchor
+     */
+    private LongObjectMap<Rope> findRopesIn(List<Block> blocks, LongHashSet ropeBlocks) {
+        LongObjectMap<Rope> hit = new LongObjectMap<>();
+        if (blocks.isEmpty()) return hit;
+
+        World world = blocks.get(0).getWorld();
+        Material chainMaterial = config.getChainMaterial();
+        LongObjectMap<Rope> byColumn = new LongObjectMap<>();
+        for (Block block : blocks) {
+            Rope rope = resolveRope(world, block, byColumn, chainMaterial);
+            if (rope == null) continue;
 
-        // Check if player is on or adjacent to a rope
-        if (!isNearRope(playerLoc)) return;
+            if (ropeBlocks != null) {
+                ropeBlocks.add(RopeIndex.pack(block.getX(), block.getY(), block.getZ()));
+            }
+            long anchor = RopeIndex.pack(rope.getX(), rope.getTopY(), rope.getZ());
+            if (!hit.containsKey(anchor)) {
+                hit.put(anchor, rope);
+            }
+        }
+        return hit;
+    }
 
-        double climbSpeed = config.getClimbSpeed();
-        Vector velocity = player.getVelocity();
-        float pitch = playerLoc.getPitch(); // Negative = looking up, Positive = looking down
+    /**
+     * Finds the rope a listed block belongs to. Blocks of a rope already found in
+     * the same column are answered from that rope and the listed block itself, so
+     * each rope costs one index and world lookup however many of its blocks are listed.
+     *
+     * @param byColumn The last rope found in each column, keyed by its packed x and z
+     */
+    private Rope resolveRope(World world, Block block, LongObjectMap<Rope> byColumn, Material chainMaterial) {
+        long column = RopeIndex.pack(block.getX(), 0, block.getZ());
+        Rope known = byColumn.get(column);
+        if (known != null && known.contains(block.getY())) {
+            return block.getType() == chainMaterial ? known : null;
+        }
 
-        if (pitch < -30) {
-            // Looking up - ascend
-            velocity.setY(climbSpeed);
-        } else if (pitch > 30) {
-            // Looking down - descend
-            velocity.setY(-climbSpeed);
-        } else {
-            // Looking straight - hold position
-            velocity.setY(0);
+        Rope rope = ropes.getRope(world, block.getX(), block.getY(), block.getZ());
+        if (rope != null) {
+            byColumn.put(column, rope);
         }
+        return rope;
+    }
+
+    // ==================== CLIMBING ====================
+    // Player movement is handled by ClimbingListener, registered only while climbing is emulated
+
+    @EventHandler
+    public void onResourcesReloaded(ServerResourcesReloadedEvent event) {
+        // The reload may have added or removed the rope block from the climbable tag
+        plugin.updateClimbingMode();
+    }
 
-        player.setVelocity(velocity);
-        player.setFallDistance(0); // Prevent fall damage while on rope
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        craftResults.remove(event.getPlayer().getUniqueId());
+        plugin.getCulling().forget(event.getPlayer());
     }
 
-    private boolean isNearRope(Location loc) {
-        int radius = config.getInteractionRadius();
-        Block feetBlock = loc.getBlock();
-        Block eyeBlock = loc.clone().add(0, 1.6, 0).getBlock();
+    // ==================== ROPE INDEX / STORAGE ====================
 
-        // Check blocks within Manhattan distance at both feet and eye level
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -radius; dy <= radius; dy++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) <= radius) {
-                        if (ropes.isRopeBlock(feetBlock.getRelative(dx, dy, dz).getLocation())) return true;
-                        if (ropes.isRopeBlock(eyeBlock.getRelative(dx, dy, dz).getLocation())) return true;
-                    }
-                }
-            }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        storage.loadChunk(chunk);
+
+        // Displays are brought in line when the chunk's entities load, unless they already have
+        if (chunk.isEntitiesLoaded() && !index.getChunkRopes(chunk.getWorld(), chunk.getX(), chunk.getZ()).isEmpty()) {
+            storage.loadDisplays(chunk, Arrays.asList(chunk.getEntities()));
         }
+    }
 
-        return false;
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        storage.unloadChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        storage.saveWorld(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        storage.loadDisplays(event.getChunk(), event.getEntities());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        storage.saveWorld(event.getWorld());
+        index.clearWorld(event.getWorld());
+        stats.unloadWorld(event.getWorld());
     }
 
     // ==================== ROPE ARROW - SHOOTING ====================
@@ -506,15 +677,18 @@ public class Listeners implements Listener {
                 ropes.extendRopeAnimated(ropeToExtend, ropeLength, added -> {
                     int unused = ropeLengthFinal - added;
                     if (unused > 0) {
-                        ropes.dropRopeCoils(arrowLocFinal, unused);
+                        plugin.getScheduling().runAt(arrowLocFinal, () -> ropes.dropRopeCoils(arrowLocFinal, unused));
                     }
                 });
             } else {
-                int added = ropes.extendRope(ropeToExtend, ropeLength);
-                int unused = ropeLength - added;
-                if (unused > 0) {
-                    ropes.dropRopeCoils(arrowLoc, unused);
-                }
+                final int ropeLengthFinal = ropeLength;
+                final Location arrowLocFinal = arrowLoc;
+                ropes.extendRopeAsync(ropeToExtend, ropeLength, added -> {
+                    int unused = ropeLengthFinal - added;
+                    if (unused > 0) {
+                        plugin.getScheduling().runAt(arrowLocFinal, () -> ropes.dropRopeCoils(arrowLocFinal, unused));
+                    }
+                });
             }
             arrow.remove();
             return;
@@ -553,7 +727,7 @@ public class Listeners implements Listener {
                     if (config.isAnimationEnabled()) {
                         ropes.placeRopeAnimated(fenceBlock.getLocation(), ropeLength - 1, null);
                     } else {
-                        ropes.placeRope(fenceBlock.getLocation(), ropeLength - 1);
+                        ropes.placeRopeAsync(fenceBlock.getLocation(), ropeLength - 1, null);
                     }
                 }
                 arrow.remove();
@@ -586,7 +760,7 @@ public class Listeners implements Listener {
                     if (config.isAnimationEnabled()) {
                         ropes.placeRopeAnimated(belowAdjacent.getLocation(), ropeLength - 1, null);
                     } else {
-                        ropes.placeRope(belowAdjacent.getLocation(), ropeLength - 1);
+                        ropes.placeRopeAsync(belowAdjacent.getLocation(), ropeLength - 1, null);
                     }
                 }
                 arrow.remove();
@@ -598,7 +772,7 @@ public class Listeners implements Listener {
         if (config.isAnimationEnabled()) {
             ropes.placeRopeAnimated(placementLoc, ropeLength, null);
         } else {
-            ropes.placeRope(placementLoc, ropeLength);
+            ropes.placeRopeAsync(placementLoc, ropeLength, null);
         }
         arrow.remove();
     }
@@ -607,6 +781,8 @@ public class Listeners implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getResourcePack().sendTo(event.getPlayer());
+
         String targetAdvancement = config.getRecipeUnlockAdvancement();
         if (targetAdvancement == null || targetAdvancement.isEmpty()) {
             return;
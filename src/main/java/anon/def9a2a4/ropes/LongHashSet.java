@@ -0,0 +1,158 @@
+package anon.def9a2a4.ropes;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs.
+ * Used for packed block coordinates so lookups never box.
+ */
+public class LongHashSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return containsZero;
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a key. Returns true if it was not already present.
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a key. Returns true if it was present.
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Copies all keys into a new array, in no particular order.
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int i = 0;
+        if (containsZero) result[i++] = 0;
+        for (long key : keys) {
+            if (key != 0) result[i++] = key;
+        }
+        return result;
+    }
+
+    /**
+     * Backward-shift deletion: closes the gap left at the given slot so
+     * later probes still find keys that collided past it.
+     */
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[slot]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int home = mix(current) & mask;
+                // Move the key back only if its home slot is not between last and slot (cyclically)
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        keys = new long[capacity];
+        mask = capacity - 1;
+        for (long key : old) {
+            if (key == 0) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
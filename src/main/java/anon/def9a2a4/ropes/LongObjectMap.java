@@ -0,0 +1,214 @@
+package anon.def9a2a4.ropes;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Open-addressing hash map from primitive longs to objects.
+ * Companion to {@link LongHashSet} for packed chunk and column keys.
+ */
+public class LongObjectMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+    private Object zeroValue;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) return containsZero ? (V) zeroValue : null;
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) return (V) values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return containsZero;
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Associates a value with a key. Returns the previous value, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes a key. Returns the value it was mapped to, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            if (!containsZero) return null;
+            V previous = (V) zeroValue;
+            containsZero = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                V previous = (V) values[slot];
+                shiftKeys(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        containsZero = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Copies all keys into a new array, in no particular order.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int i = 0;
+        if (containsZero) result[i++] = 0;
+        for (long key : keys) {
+            if (key != 0) result[i++] = key;
+        }
+        return result;
+    }
+
+    /**
+     * Calls the consumer for every value, in no particular order.
+     * The map must not be modified while iterating.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> consumer) {
+        if (containsZero) consumer.accept((V) zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) consumer.accept((V) values[i]);
+        }
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[slot]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                int home = mix(current) & mask;
+                // Move the entry back only if its home slot is not between last and slot (cyclically)
+                if (last <= slot ? (last >= home || home > slot) : (last >= home && home > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,319 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Shared, tick-budgeted queue for rope changes: breaking, placing and refunds.
+ *
+ * Work is done in slices (a batch of blocks, or a few item stacks), so a long
+ * rope or a huge refund can be spread over several ticks. Submitted work runs
+ * straight away while this tick's budget lasts and nothing of the same or higher
+ * priority is waiting; whatever is left is queued and carried over to later
+ * ticks. Queued work drains player actions first, then world events, then bulk
+ * jobs. The driver task only runs while work is queued, and always runs at least
+ * one slice per tick so the queue keeps moving.
+ *
+ * On Folia each region ticks on its own thread, so the queue is split into
+ * lanes, one per section of {@value #SECTION_CHUNKS} by {@value #SECTION_CHUNKS}
+ * chunks. Folia never splits a section between regions, so each lane is only
+ * touched by the thread of the region owning it, and has its own budget and
+ * driver there. A region spanning several sections gets a budget per section.
+ */
+public class MutationQueue {
+    public enum Priority {
+        /** A player broke or placed something and is waiting to see the result */
+        PLAYER,
+        /** Explosions and other world events */
+        WORLD,
+        /** Admin cleanup and other background jobs */
+        BULK
+    }
+
+    /**
+     * Work that can be done a slice at a time.
+     */
+    @FunctionalInterface
+    public interface Work {
+        /**
+         * Does the next slice of the work.
+         *
+         * @return true if there is more to do, false once the work is finished
+         */
+        boolean step();
+    }
+
+    private static final int SECTION_SHIFT = 4;
+    private static final int SECTION_CHUNKS = 1 << SECTION_SHIFT;
+    // Folia has no global tick counter, so budgets there are kept per 50 ms window
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private final RopesPlugin plugin;
+    private final Scheduling scheduling;
+    // The only lane outside Folia
+    private final Lane lane;
+    // Lanes by world and section on Folia, created and removed on the thread owning the section
+    private final Map<SectionKey, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Queued work by priority, across all lanes
+    private final AtomicInteger[] depths;
+    private volatile int peakDepth;
+    private volatile long lastTickNanos;
+
+    private record SectionKey(World world, int sectionX, int sectionZ) {}
+
+    public MutationQueue(RopesPlugin plugin, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.scheduling = scheduling;
+        this.depths = new AtomicInteger[Priority.values().length];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = new AtomicInteger();
+        }
+        this.lane = Scheduling.isFolia() ? null : new Lane(null);
+    }
+
+    /**
+     * Runs a single unit of work at a location now if the budget allows, or queues it.
+     */
+    public void submit(Priority priority, Location loc, Runnable work) {
+        submit(priority, loc, once(work));
+    }
+
+    /**
+     * Runs a single unit of work in a chunk now if the budget allows, or queues it.
+     */
+    public void submit(Priority priority, World world, int chunkX, int chunkZ, Runnable work) {
+        submit(priority, world, chunkX, chunkZ, once(work));
+    }
+
+    /**
+     * Runs slices of work at a location while the budget allows, and queues the rest.
+     */
+    public void submit(Priority priority, Location loc, Work work) {
+        submit(priority, loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4, work);
+    }
+
+    /**
+     * Runs slices of work in a chunk while the budget allows, and queues the rest.
+     */
+    public void submit(Priority priority, World world, int chunkX, int chunkZ, Work work) {
+        if (!Scheduling.isFolia()) {
+            lane.submit(priority, work);
+            return;
+        }
+        SectionKey key = new SectionKey(world, chunkX >> SECTION_SHIFT, chunkZ >> SECTION_SHIFT);
+        scheduling.runAt(world, chunkX, chunkZ, () -> lanes.computeIfAbsent(key, Lane::new).submit(priority, work));
+    }
+
+    private static Work once(Runnable work) {
+        return () -> {
+            work.run();
+            return false;
+        };
+    }
+
+    /**
+     * Finishes all queued work at once, ignoring the budget, so nothing is lost
+     * when the plugin disables. On Folia the work belongs to region threads that
+     * can't be reached from here, so it is left undone: ropes keep whatever part
+     * is not broken yet in the index and chunk storage, and the audit can repair
+     * them, but coils not refunded yet are lost.
+     */
+    public void drain() {
+        int depth = getDepth();
+        if (depth == 0) return;
+
+        if (Scheduling.isFolia()) {
+            plugin.getLogger().warning(depth + " queued rope changes could not be finished before shutdown;"
+                + " unbroken rope parts stay stored, but pending coil refunds are lost");
+            return;
+        }
+        lane.drain();
+        plugin.getLogger().info("Finished " + depth + " queued rope changes before shutdown");
+    }
+
+    /**
+     * One queue with its own budget and driver: the whole server outside Folia,
+     * or one section on Folia.
+     */
+    private class Lane {
+        private final SectionKey key;
+        private final ArrayDeque<Work>[] queues;
+        private BukkitTask task;
+        private ScheduledTask regionTask;
+
+        // Budget spent in the current tick, by inline and queued work together
+        private long budgetTick = Long.MIN_VALUE;
+        private long spentNanos;
+
+        @SuppressWarnings("unchecked")
+        Lane(SectionKey key) {
+            this.key = key;
+            this.queues = new ArrayDeque[Priority.values().length];
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new ArrayDeque<>();
+            }
+        }
+
+        void submit(Priority priority, Work work) {
+            resetBudgetIfNewTick();
+            if (!hasWaitingAtOrAbove(priority)) {
+                boolean more = true;
+                while (more && spentNanos < budgetNanos()) {
+                    more = run(work);
+                }
+                if (!more) {
+                    if (key != null && regionTask == null) {
+                        lanes.remove(key, this);
+                    }
+                    return;
+                }
+            }
+
+            queues[priority.ordinal()].add(work);
+            depths[priority.ordinal()].incrementAndGet();
+            peakDepth = Math.max(peakDepth, getDepth());
+            startDriver();
+        }
+
+        private void tick() {
+            long start = System.nanoTime();
+            resetBudgetIfNewTick();
+
+            boolean ranAny = false;
+            for (int i = 0; i < queues.length; i++) {
+                ArrayDeque<Work> queue = queues[i];
+                while (!queue.isEmpty() && (!ranAny || spentNanos < budgetNanos())) {
+                    ranAny = true;
+                    if (!run(queue.peek())) {
+                        queue.poll();
+                        depths[i].decrementAndGet();
+                    }
+                }
+            }
+
+            if (isEmpty()) {
+                stopDriver();
+            }
+            lastTickNanos = System.nanoTime() - start;
+        }
+
+        void drain() {
+            // Work may queue more work as it finishes, such as refunds
+            while (!isEmpty()) {
+                for (int i = 0; i < queues.length; i++) {
+                    Work work;
+                    while ((work = queues[i].poll()) != null) {
+                        depths[i].decrementAndGet();
+                        while (run(work)) {
+                            // Keep going until it is finished
+                        }
+                    }
+                }
+            }
+            stopDriver();
+        }
+
+        private boolean run(Work work) {
+            long start = System.nanoTime();
+            try {
+                return work.step();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Error during queued rope work", e);
+                return false;
+            } finally {
+                spentNanos += System.nanoTime() - start;
+            }
+        }
+
+        private void startDriver() {
+            if (key == null) {
+                if (task == null) {
+                    task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+                }
+            } else if (regionTask == null) {
+                int blockX = key.sectionX() << (SECTION_SHIFT + 4);
+                int blockZ = key.sectionZ() << (SECTION_SHIFT + 4);
+                regionTask = scheduling.runTimerAt(new Location(key.world(), blockX, 0, blockZ), scheduled -> tick(), 1);
+            }
+        }
+
+        private void stopDriver() {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+            if (regionTask != null) {
+                regionTask.cancel();
+                regionTask = null;
+                lanes.remove(key, this);
+            }
+        }
+
+        private void resetBudgetIfNewTick() {
+            long tick = key == null ? plugin.getServer().getCurrentTick() : System.nanoTime() / TICK_NANOS;
+            if (tick != budgetTick) {
+                budgetTick = tick;
+                spentNanos = 0;
+            }
+        }
+
+        private boolean hasWaitingAtOrAbove(Priority priority) {
+            for (int i = 0; i <= priority.ordinal(); i++) {
+                if (!queues[i].isEmpty()) return true;
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            for (ArrayDeque<Work> queue : queues) {
+                if (!queue.isEmpty()) return false;
+            }
+            return true;
+        }
+    }
+
+    private long budgetNanos() {
+        return plugin.getConfiguration().getMutationTickBudgetMs() * 1_000_000L;
+    }
+
+    // ==================== METRICS ====================
+
+    /**
+     * Returns the number of queued pieces of work, across all lanes.
+     */
+    public int getDepth() {
+        int depth = 0;
+        for (AtomicInteger count : depths) {
+            depth += count.get();
+        }
+        return depth;
+    }
+
+    public int getDepth(Priority priority) {
+        return depths[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the deepest the queue has been since startup.
+     */
+    public int getPeakDepth() {
+        return peakDepth;
+    }
+
+    /**
+     * Returns how long the last driver tick took, in nanoseconds. On Folia this
+     * is the last tick of whichever lane ran most recently.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+}
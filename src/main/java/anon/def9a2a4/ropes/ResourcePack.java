@@ -0,0 +1,104 @@
+package anon.def9a2a4.ropes;
+
+import net.kyori.adventure.resource.ResourcePackInfo;
+import net.kyori.adventure.resource.ResourcePackRequest;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * The bundled resource pack with item models for rope coils and displays.
+ *
+ * When enabled, the pack is written to the plugin folder as a zip so it can be
+ * hosted, and sent to joining players if a download URL is configured. Items
+ * then render through the item_model component instead of a player-head skin.
+ */
+public class ResourcePack {
+    public static final NamespacedKey COIL_MODEL = new NamespacedKey("ropes", "rope_coil");
+    public static final NamespacedKey DISPLAY_MODEL = new NamespacedKey("ropes", "rope");
+
+    private static final String FILE_NAME = "ropes-resourcepack.zip";
+    private static final String SOURCE = "resourcepack/";
+    private static final List<String> FILES = List.of(
+        "pack.mcmeta",
+        "assets/ropes/items/rope.json",
+        "assets/ropes/items/rope_coil.json",
+        "assets/ropes/models/item/rope.json",
+        "assets/ropes/models/item/rope_coil.json",
+        "assets/ropes/textures/item/rope.png",
+        "assets/ropes/textures/item/rope_coil.png"
+    );
+    // Stable ID so clients replace the pack rather than stacking copies
+    private static final UUID PACK_ID = new UUID(0x526F706573506163L, 0x6B00000000000001L); // "RopesPac" + "k"
+
+    private final RopesPlugin plugin;
+    private String hash;
+
+    public ResourcePack(RopesPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Writes the pack zip to the plugin folder if the pack is enabled, and remembers its SHA-1.
+     */
+    public void export() {
+        hash = null;
+        if (!plugin.getConfiguration().isResourcePackEnabled()) return;
+
+        File file = new File(plugin.getDataFolder(), FILE_NAME);
+        try {
+            byte[] zip = buildZip();
+            Files.write(file.toPath(), zip);
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(zip));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            plugin.getLogger().warning("Failed to export resource pack: " + e.getMessage());
+        }
+    }
+
+    private byte[] buildZip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : FILES) {
+                try (InputStream in = plugin.getResource(SOURCE + name)) {
+                    if (in == null) {
+                        throw new IOException("Missing bundled file " + name);
+                    }
+                    ZipEntry entry = new ZipEntry(name);
+                    // Fixed timestamp so the zip, and its hash, only change with its contents
+                    entry.setTime(0);
+                    zip.putNextEntry(entry);
+                    in.transferTo(zip);
+                    zip.closeEntry();
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Sends the pack to a player if the pack is enabled and a download URL is configured.
+     */
+    public void sendTo(Player player) {
+        Config config = plugin.getConfiguration();
+        String url = config.getResourcePackUrl();
+        if (!config.isResourcePackEnabled() || url.isEmpty() || hash == null) return;
+
+        player.sendResourcePacks(ResourcePackRequest.resourcePackRequest()
+            .packs(ResourcePackInfo.resourcePackInfo(PACK_ID, URI.create(url), hash))
+            .required(config.isResourcePackRequired())
+            .build());
+    }
+}
@@ -0,0 +1,109 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.UUID;
+
+/**
+ * A placed rope: one contiguous vertical run of rope blocks in a single column.
+ * Records are owned and mutated by {@link RopeIndex}.
+ */
+public class Rope {
+    public enum AnchorType {
+        /** Hangs from a solid block above the top segment */
+        SOLID,
+        /** Hangs from an anchor fence above the top segment */
+        FENCE
+    }
+
+    private final UUID worldId;
+    private final int x;
+    private final int z;
+    // Written under the RopeIndex lock, read by other region threads on Folia
+    private volatile int topY;
+    private volatile int bottomY;
+    private volatile AnchorType anchorType;
+    private volatile boolean removed;
+
+    // Next rope in the same column, maintained by RopeIndex under its lock
+    Rope next;
+
+    Rope(UUID worldId, int x, int topY, int bottomY, int z, AnchorType anchorType) {
+        this.worldId = worldId;
+        this.x = x;
+        this.z = z;
+        this.topY = topY;
+        this.bottomY = bottomY;
+        this.anchorType = anchorType;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public int getTopY() {
+        return topY;
+    }
+
+    public int getBottomY() {
+        return bottomY;
+    }
+
+    public AnchorType getAnchorType() {
+        return anchorType;
+    }
+
+    public int getLength() {
+        return topY - bottomY + 1;
+    }
+
+    /**
+     * Returns true once the record has been dropped from the index
+     * (broken, merged into another rope, or its chunk unloaded).
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public boolean contains(int y) {
+        return y <= topY && y >= bottomY;
+    }
+
+    public Location getTopLocation(World world) {
+        return new Location(world, x, topY, z);
+    }
+
+    public Location getBottomLocation(World world) {
+        return new Location(world, x, bottomY, z);
+    }
+
+    void setTopY(int topY) {
+        this.topY = topY;
+    }
+
+    void setBottomY(int bottomY) {
+        this.bottomY = bottomY;
+    }
+
+    void setAnchorType(AnchorType anchorType) {
+        this.anchorType = anchorType;
+    }
+
+    void markRemoved() {
+        this.removed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "Rope{" + x + ", " + topY + ".." + bottomY + ", " + z + ", " + anchorType + "}";
+    }
+}
@@ -0,0 +1,242 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background consistency check for /ropes audit.
+ *
+ * Walks the loaded chunks a few per tick, within the configured time budget, and
+ * compares the rope index with the chain blocks and rope displays actually there.
+ * Finds indexed segments whose chain block is gone, displays with no rope under
+ * them, duplicate displays, and rope blocks missing their display. In repair mode
+ * the index is corrected and displays are removed or respawned to match.
+ */
+public class RopeAuditor {
+    private static final int PROGRESS_INTERVAL_TICKS = 100;
+
+    private record PendingChunk(World world, int chunkX, int chunkZ) {}
+
+    private final RopesPlugin plugin;
+    private final CommandSender sender;
+    private final boolean repair;
+    private final ArrayDeque<PendingChunk> queue = new ArrayDeque<>();
+    private final int totalChunks;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicInteger doneChunks = new AtomicInteger();
+    private final AtomicInteger skippedChunks = new AtomicInteger();
+    private final AtomicLong checkedRopes = new AtomicLong();
+    private final AtomicLong missingBlocks = new AtomicLong();
+    private final AtomicLong orphanDisplays = new AtomicLong();
+    private final AtomicLong duplicateDisplays = new AtomicLong();
+    private final AtomicLong missingDisplays = new AtomicLong();
+    private volatile boolean cancelled;
+
+    private ScheduledTask task;
+    private Runnable onFinish;
+    private int ticks;
+
+    /**
+     * @param repair Fix mismatches as they are found, rather than only counting them
+     */
+    public RopeAuditor(RopesPlugin plugin, CommandSender sender, boolean repair) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.repair = repair;
+
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                queue.add(new PendingChunk(world, chunk.getX(), chunk.getZ()));
+            }
+        }
+        totalChunks = queue.size();
+    }
+
+    /**
+     * Starts working through the loaded chunks.
+     *
+     * @param onFinish Run once the audit completes or is cancelled
+     */
+    public void start(Runnable onFinish) {
+        this.onFinish = onFinish;
+        sender.sendMessage(Component.text((repair ? "Auditing and repairing" : "Auditing") + " ropes in "
+            + totalChunks + " loaded chunks.", NamedTextColor.YELLOW));
+        task = plugin.getScheduling().runTimer(scheduled -> tick(), 1);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Component status() {
+        return Component.text("Rope audit: " + doneChunks.get() + "/" + totalChunks + " chunks, "
+            + mismatches() + " mismatches found.", NamedTextColor.YELLOW);
+    }
+
+    private long mismatches() {
+        return missingBlocks.get() + orphanDisplays.get() + duplicateDisplays.get() + missingDisplays.get();
+    }
+
+    private void tick() {
+        if (cancelled) {
+            finish();
+            return;
+        }
+
+        Config config = plugin.getConfiguration();
+        long deadline = System.nanoTime() + config.getAuditTickBudgetMs() * 1_000_000L;
+        int maxChunks = config.getAuditMaxChunksPerTick();
+        int handled = 0;
+
+        while (!queue.isEmpty() && handled < maxChunks && System.nanoTime() < deadline) {
+            PendingChunk chunk = queue.poll();
+            plugin.getScheduling().runAt(chunk.world, chunk.chunkX, chunk.chunkZ, () -> auditChunk(chunk));
+            handled++;
+        }
+
+        if (queue.isEmpty() && doneChunks.get() >= totalChunks) {
+            finish();
+            return;
+        }
+
+        if (++ticks % PROGRESS_INTERVAL_TICKS == 0) {
+            sender.sendMessage(status());
+        }
+    }
+
+    private void auditChunk(PendingChunk pending) {
+        try {
+            World world = pending.world;
+            // Chunks that unloaded since the audit started, or whose entities are not in yet, can't be compared
+            if (cancelled || !world.isChunkLoaded(pending.chunkX, pending.chunkZ)) {
+                skippedChunks.incrementAndGet();
+                return;
+            }
+            Chunk chunk = world.getChunkAt(pending.chunkX, pending.chunkZ);
+            if (!chunk.isEntitiesLoaded()) {
+                skippedChunks.incrementAndGet();
+                return;
+            }
+
+            auditBlocks(world, pending);
+            auditDisplays(world, chunk);
+        } finally {
+            doneChunks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Checks that every indexed segment is still a chain block.
+     */
+    private void auditBlocks(World world, PendingChunk pending) {
+        RopeIndex index = plugin.getRopeIndex();
+        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+
+        for (Rope rope : index.getChunkRopes(world, pending.chunkX, pending.chunkZ)) {
+            checkedRopes.incrementAndGet();
+            // Repairs may shorten or split the rope, so walk its original extent
+            int topY = rope.getTopY();
+            int bottomY = rope.getBottomY();
+            for (int y = topY; y >= bottomY; y--) {
+                if (world.getBlockAt(rope.getX(), y, rope.getZ()).getType() == chainMaterial) continue;
+
+                missingBlocks.incrementAndGet();
+                if (repair) {
+                    plugin.getRopes().removeSegment(world, rope.getX(), y, rope.getZ());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the chunk's rope displays against the indexed ropes: one display per
+     * segment in per-block mode, or one at the top of each rope in merged mode.
+     */
+    private void auditDisplays(World world, Chunk chunk) {
+        Display display = plugin.getDisplay();
+        boolean perBlock = plugin.getConfiguration().getDisplayMode() == Config.DisplayMode.PER_BLOCK;
+        List<Rope> chunkRopes = plugin.getRopeIndex().getChunkRopes(world, chunk.getX(), chunk.getZ());
+
+        // Blocks that should carry a display, and those that do
+        LongHashSet expected = new LongHashSet();
+        for (Rope rope : chunkRopes) {
+            if (perBlock) {
+                for (int y = rope.getTopY(); y >= rope.getBottomY(); y--) {
+                    expected.add(RopeIndex.pack(rope.getX(), y, rope.getZ()));
+                }
+            } else {
+                expected.add(RopeIndex.pack(rope.getX(), rope.getTopY(), rope.getZ()));
+            }
+        }
+
+        LongHashSet seen = new LongHashSet();
+        for (Entity entity : chunk.getEntities()) {
+            if (!display.isRopeDisplay(entity)) continue;
+
+            Location loc = entity.getLocation();
+            long key = RopeIndex.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+            if (!expected.contains(key)) {
+                orphanDisplays.incrementAndGet();
+            } else if (!seen.add(key)) {
+                duplicateDisplays.incrementAndGet();
+            } else {
+                continue;
+            }
+            if (repair) {
+                entity.remove();
+            }
+        }
+
+        for (Rope rope : chunkRopes) {
+            if (perBlock) {
+                for (int y = rope.getTopY(); y >= rope.getBottomY(); y--) {
+                    if (seen.contains(RopeIndex.pack(rope.getX(), y, rope.getZ()))) continue;
+                    missingDisplays.incrementAndGet();
+                    if (repair) {
+                        display.spawnRopeDisplay(new Location(world, rope.getX(), y, rope.getZ()));
+                    }
+                }
+            } else if (!seen.contains(RopeIndex.pack(rope.getX(), rope.getTopY(), rope.getZ()))) {
+                missingDisplays.incrementAndGet();
+                if (repair) {
+                    display.updateRopeDisplay(world, rope);
+                }
+            }
+        }
+    }
+
+    private void finish() {
+        task.cancel();
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        String verb = repair ? "Repaired" : "Found";
+
+        sender.sendMessage(Component.text((cancelled ? "Rope audit cancelled" : "Rope audit finished") + " after "
+            + doneChunks.get() + " chunks and " + checkedRopes.get() + " ropes in "
+            + String.format("%.1f", seconds) + "s" + (skippedChunks.get() > 0 ? " (" + skippedChunks.get() + " skipped)." : "."),
+            cancelled ? NamedTextColor.YELLOW : NamedTextColor.GREEN));
+        if (mismatches() == 0) {
+            sender.sendMessage(Component.text("No mismatches found.", NamedTextColor.GRAY));
+        } else {
+            sender.sendMessage(Component.text(verb + ": " + missingBlocks.get() + " segments without a chain block, "
+                + orphanDisplays.get() + " displays without a rope, " + duplicateDisplays.get() + " duplicate displays, "
+                + missingDisplays.get() + " missing displays.", NamedTextColor.GRAY));
+            if (!repair) {
+                sender.sendMessage(Component.text("Run /ropes audit repair to fix them.", NamedTextColor.YELLOW));
+            }
+        }
+        onFinish.run();
+    }
+}
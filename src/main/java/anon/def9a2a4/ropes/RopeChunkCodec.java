@@ -0,0 +1,158 @@
+package anon.def9a2a4.ropes;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the ropes in one chunk.
+ *
+ * Format (version 1):
+ *   byte    version
+ *   varint  column count
+ *   per column:
+ *     byte    section-local x (high nibble) and z (low nibble)
+ *     varint  rope count
+ *     per rope, ascending y:
+ *       zigzag varint  bottom y minus the end of the previous rope (absolute y for the first rope)
+ *       varint         rope length
+ *
+ * A chunk holding a single 16-block rope encodes to about 6 bytes.
+ */
+public class RopeChunkCodec {
+    public static final int VERSION = 1;
+    static final int MAX_RUN_LENGTH = 4096;
+
+    private RopeChunkCodec() {}
+
+    /**
+     * Receives decoded ropes, one vertical run at a time.
+     */
+    @FunctionalInterface
+    public interface RunConsumer {
+        void accept(int x, int topY, int bottomY, int z);
+    }
+
+    /**
+     * Encodes the ropes of one chunk.
+     */
+    public static byte[] encode(List<Rope> ropes) {
+        // Sort by column, then by y
+        List<Rope> sorted = new ArrayList<>(ropes);
+        sorted.sort(Comparator.comparingInt((Rope rope) -> column(rope.getX(), rope.getZ()))
+            .thenComparingInt(Rope::getBottomY));
+
+        int columns = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i == 0 || column(sorted.get(i)) != column(sorted.get(i - 1))) columns++;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + sorted.size() * 4);
+        out.write(VERSION);
+        writeVarInt(out, columns);
+
+        int i = 0;
+        while (i < sorted.size()) {
+            int column = column(sorted.get(i));
+            int end = i;
+            while (end < sorted.size() && column(sorted.get(end)) == column) end++;
+
+            out.write(column);
+            writeVarInt(out, end - i);
+            int previousEnd = 0;
+            for (; i < end; i++) {
+                Rope rope = sorted.get(i);
+                writeVarInt(out, zigzag(rope.getBottomY() - previousEnd));
+                writeVarInt(out, rope.getLength());
+                previousEnd = rope.getTopY() + 1;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes data written by {@link #encode}, passing each rope to the consumer.
+     *
+     * @throws IllegalArgumentException if the data is truncated or of an unknown version
+     */
+    public static void decode(byte[] data, int chunkX, int chunkZ, RunConsumer consumer) {
+        Reader in = new Reader(data);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown rope data version " + version);
+        }
+
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+
+        int columns = in.readVarInt();
+        for (int c = 0; c < columns; c++) {
+            int column = in.readByte();
+            int x = baseX + (column >> 4);
+            int z = baseZ + (column & 15);
+            int runs = in.readVarInt();
+            int previousEnd = 0;
+            for (int r = 0; r < runs; r++) {
+                int start = previousEnd + unzigzag(in.readVarInt());
+                int length = in.readVarInt();
+                if (length < 1 || length > MAX_RUN_LENGTH) {
+                    throw new IllegalArgumentException("Invalid rope run length " + length);
+                }
+                consumer.accept(x, start + length - 1, start, z);
+                previousEnd = start + length;
+            }
+        }
+    }
+
+    private static int column(int x, int z) {
+        return ((x & 15) << 4) | (z & 15);
+    }
+
+    private static int column(Rope rope) {
+        return column(rope.getX(), rope.getZ());
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Shared with RopeStats, which stores its data in the same varint encoding
+    static class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated rope data");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint in rope data");
+        }
+    }
+}
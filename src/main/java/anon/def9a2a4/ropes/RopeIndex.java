@@ -0,0 +1,613 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of placed ropes, kept per world and per loaded chunk.
+ * Each chunk holds its rope records by column, so any segment resolves to its
+ * {@link Rope} in constant time without entity queries, and memory follows the
+ * set of loaded chunks.
+ *
+ * Each world's index is guarded by its own lock, so region threads on Folia can
+ * read and update ropes concurrently. Lookups and updates only hold it for a
+ * few map operations.
+ */
+public class RopeIndex {
+    private static final long[] NO_CHUNKS = new long[0];
+
+    private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+    private final RopeStats stats;
+    private volatile DirtyListener dirtyListener;
+
+    /**
+     * Told when a chunk's ropes change while it has no unsaved changes yet.
+     * Called on the thread making the change, with the world's index locked.
+     */
+    @FunctionalInterface
+    public interface DirtyListener {
+        void chunkDirtied(World world, int chunkX, int chunkZ);
+    }
+
+    private static class WorldIndex {
+        final LongObjectMap<ChunkRopes> chunks = new LongObjectMap<>();
+        final LongHashSet dirtyChunks = new LongHashSet();
+        // Counters are written under the lock but may be read without it
+        volatile int segments;
+        volatile int ropes;
+        // Bumped on every change in the world; chunk epochs are stamped from it
+        volatile long epoch;
+        // World epoch at which any chunk last lost all its ropes, so area epochs still
+        // change when the last rope in a chunk goes. Kept for the whole world rather
+        // than per chunk, so nothing is remembered about chunks without ropes
+        long droppedEpoch;
+
+        ChunkRopes createChunk(long chunkKey) {
+            return new ChunkRopes();
+        }
+
+        /**
+         * Forgets a chunk's ropes, stamping its removal with the current epoch.
+         */
+        void dropChunk(long chunkKey) {
+            chunks.remove(chunkKey);
+            droppedEpoch = epoch;
+        }
+    }
+
+    private static class ChunkRopes {
+        // Head of each column's rope list, indexed by (localX << 4) | localZ
+        final Rope[] columns = new Rope[256];
+        int ropes;
+        // World epoch at this chunk's last change
+        long epoch;
+    }
+
+    /**
+     * Packs block coordinates into a single long (26 bits x, 26 bits z, 12 bits y).
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Packs chunk coordinates the same way as {@link org.bukkit.Chunk#getChunkKey()}.
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    public static int chunkKeyX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public static int chunkKeyZ(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    /**
+     * @param stats Receives every placement and break; not told about chunk loads and unloads
+     */
+    public RopeIndex(RopeStats stats) {
+        this.stats = stats;
+    }
+
+    private static int column(int x, int z) {
+        return ((x & 15) << 4) | (z & 15);
+    }
+
+    // ==================== LOOKUPS ====================
+
+    /**
+     * Returns the rope containing the given block, or null.
+     */
+    public Rope getRope(World world, int x, int y, int z) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return null;
+        synchronized (worldIndex) {
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey(x >> 4, z >> 4));
+            if (chunk == null) return null;
+
+            for (Rope rope = chunk.columns[column(x, z)]; rope != null; rope = rope.next) {
+                if (rope.contains(y)) return rope;
+            }
+            return null;
+        }
+    }
+
+    public Rope getRope(Location loc) {
+        World world = loc.getWorld();
+        return world == null ? null : getRope(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    public boolean contains(World world, int x, int y, int z) {
+        return getRope(world, x, y, z) != null;
+    }
+
+    public boolean contains(Location loc) {
+        return getRope(loc) != null;
+    }
+
+    // ==================== MUTATION ====================
+
+    /**
+     * Records a single rope block. Extends, grows or joins adjacent ropes in the
+     * same column, or starts a new rope.
+     *
+     * @param anchorType Anchor of the rope if this block becomes its top
+     * @return The rope that now contains the block
+     */
+    public Rope addSegment(World world, int x, int y, int z, Rope.AnchorType anchorType) {
+        WorldIndex worldIndex = worlds.computeIfAbsent(world.getUID(), id -> new WorldIndex());
+        synchronized (worldIndex) {
+            long chunkKey = chunkKey(x >> 4, z >> 4);
+            ChunkRopes chunk = worldIndex.chunks.computeIfAbsent(chunkKey, worldIndex::createChunk);
+            int column = column(x, z);
+
+            Rope above = null;
+            Rope below = null;
+            for (Rope rope = chunk.columns[column]; rope != null; rope = rope.next) {
+                if (rope.contains(y)) return rope;
+                if (rope.getBottomY() == y + 1) above = rope;
+                if (rope.getTopY() == y - 1) below = rope;
+            }
+
+            Rope result;
+            if (above != null && below != null) {
+                // Block bridges two ropes - join them into the upper one
+                int aboveLength = above.getLength();
+                above.setBottomY(below.getBottomY());
+                unlink(chunk, column, below);
+                worldIndex.ropes--;
+                stats.ropeRemoved(world, chunkKey, below.getLength());
+                stats.ropeResized(world, chunkKey, aboveLength, above.getLength());
+                result = above;
+            } else if (above != null) {
+                above.setBottomY(y);
+                stats.ropeResized(world, chunkKey, above.getLength() - 1, above.getLength());
+                result = above;
+            } else if (below != null) {
+                below.setTopY(y);
+                below.setAnchorType(anchorType);
+                stats.ropeResized(world, chunkKey, below.getLength() - 1, below.getLength());
+                result = below;
+            } else {
+                result = new Rope(world.getUID(), x, y, y, z, anchorType);
+                result.next = chunk.columns[column];
+                chunk.columns[column] = result;
+                chunk.ropes++;
+                worldIndex.ropes++;
+                stats.ropeAdded(world, chunkKey, 1);
+            }
+
+            worldIndex.segments++;
+            markDirty(world, worldIndex, chunkKey);
+            chunk.epoch = ++worldIndex.epoch;
+            return result;
+        }
+    }
+
+    public Rope addSegment(Location loc, Rope.AnchorType anchorType) {
+        World world = loc.getWorld();
+        if (world == null) return null;
+        return addSegment(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), anchorType);
+    }
+
+    /**
+     * Removes a single rope block, shortening or splitting its rope.
+     */
+    public void removeSegment(World world, int x, int y, int z) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return;
+        synchronized (worldIndex) {
+            long chunkKey = chunkKey(x >> 4, z >> 4);
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+            if (chunk == null) return;
+            int column = column(x, z);
+
+            Rope rope = chunk.columns[column];
+            while (rope != null && !rope.contains(y)) {
+                rope = rope.next;
+            }
+            if (rope == null) return;
+
+            int length = rope.getLength();
+            if (length == 1) {
+                unlink(chunk, column, rope);
+                worldIndex.ropes--;
+                stats.ropeRemoved(world, chunkKey, 1);
+            } else if (y == rope.getTopY()) {
+                rope.setTopY(y - 1);
+                rope.setAnchorType(Rope.AnchorType.SOLID);
+                stats.ropeResized(world, chunkKey, length, length - 1);
+            } else if (y == rope.getBottomY()) {
+                rope.setBottomY(y + 1);
+                stats.ropeResized(world, chunkKey, length, length - 1);
+            } else {
+                // Split: the upper part keeps the record, the lower part becomes a new rope
+                Rope lower = new Rope(rope.getWorldId(), x, y - 1, rope.getBottomY(), z, Rope.AnchorType.SOLID);
+                rope.setBottomY(y + 1);
+                lower.next = chunk.columns[column];
+                chunk.columns[column] = lower;
+                chunk.ropes++;
+                worldIndex.ropes++;
+                stats.ropeResized(world, chunkKey, length, rope.getLength());
+                stats.ropeAdded(world, chunkKey, lower.getLength());
+            }
+
+            worldIndex.segments--;
+            markDirty(world, worldIndex, chunkKey);
+            chunk.epoch = ++worldIndex.epoch;
+            if (chunk.ropes == 0) {
+                worldIndex.dropChunk(chunkKey);
+            }
+        }
+    }
+
+    public void removeSegment(Location loc) {
+        World world = loc.getWorld();
+        if (world == null) return;
+        removeSegment(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
+
+    /**
+     * Removes a whole rope record in one update.
+     */
+    public void removeRope(World world, Rope rope) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return;
+        synchronized (worldIndex) {
+            long chunkKey = chunkKey(rope.getX() >> 4, rope.getZ() >> 4);
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+            if (chunk == null) return;
+
+            if (unlink(chunk, column(rope.getX(), rope.getZ()), rope)) {
+                worldIndex.segments -= rope.getLength();
+                worldIndex.ropes--;
+                stats.ropeRemoved(world, chunkKey, rope.getLength());
+                markDirty(world, worldIndex, chunkKey);
+                chunk.epoch = ++worldIndex.epoch;
+                if (chunk.ropes == 0) {
+                    worldIndex.dropChunk(chunkKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shortens a rope from the top so it starts at the given block, in one update,
+     * as it is broken top down. The rope is removed once nothing of it is left.
+     */
+    public void trimTop(World world, Rope rope, int topY) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return;
+        synchronized (worldIndex) {
+            if (rope.isRemoved() || topY >= rope.getTopY()) return;
+            long chunkKey = chunkKey(rope.getX() >> 4, rope.getZ() >> 4);
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+            if (chunk == null) return;
+
+            int length = rope.getLength();
+            if (topY < rope.getBottomY()) {
+                if (!unlink(chunk, column(rope.getX(), rope.getZ()), rope)) return;
+                worldIndex.segments -= length;
+                worldIndex.ropes--;
+                stats.ropeRemoved(world, chunkKey, length);
+            } else {
+                rope.setTopY(topY);
+                rope.setAnchorType(Rope.AnchorType.SOLID);
+                worldIndex.segments -= length - rope.getLength();
+                stats.ropeResized(world, chunkKey, length, rope.getLength());
+            }
+
+            markDirty(world, worldIndex, chunkKey);
+            chunk.epoch = ++worldIndex.epoch;
+            if (chunk.ropes == 0) {
+                worldIndex.dropChunk(chunkKey);
+            }
+        }
+    }
+
+    /**
+     * Moves whole ropes by the same offset, as a piston push does, with one
+     * update per rope. All ropes are lifted out before any is put back, so ropes
+     * pushed into each other's old places move cleanly. A rope that ends up
+     * touching or overlapping another in its new column is joined with it, as
+     * {@link #addSegment} would; the upper one's anchor is kept.
+     *
+     * @return The records of the moved ropes at their new positions
+     */
+    public List<Rope> moveRopes(World world, List<Rope> ropes, int dx, int dy, int dz) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return List.of();
+        synchronized (worldIndex) {
+            List<Rope> lifted = new ArrayList<>(ropes.size());
+            for (Rope rope : ropes) {
+                long chunkKey = chunkKey(rope.getX() >> 4, rope.getZ() >> 4);
+                ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+                if (chunk == null || !unlink(chunk, column(rope.getX(), rope.getZ()), rope)) continue;
+
+                markDirty(world, worldIndex, chunkKey);
+                chunk.epoch = ++worldIndex.epoch;
+                if (chunk.ropes == 0) {
+                    worldIndex.dropChunk(chunkKey);
+                }
+                lifted.add(rope);
+            }
+
+            List<Rope> moved = new ArrayList<>(lifted.size());
+            for (Rope rope : lifted) {
+                int x = rope.getX() + dx;
+                int z = rope.getZ() + dz;
+                long fromKey = chunkKey(rope.getX() >> 4, rope.getZ() >> 4);
+                long toKey = chunkKey(x >> 4, z >> 4);
+                ChunkRopes chunk = worldIndex.chunks.computeIfAbsent(toKey, worldIndex::createChunk);
+                int column = column(x, z);
+
+                int topY = rope.getTopY() + dy;
+                int bottomY = rope.getBottomY() + dy;
+                Rope.AnchorType anchorType = rope.getAnchorType();
+                int joinedSegments = 0;
+                Rope other = chunk.columns[column];
+                while (other != null) {
+                    if (other.getTopY() < bottomY - 1 || other.getBottomY() > topY + 1) {
+                        other = other.next;
+                        continue;
+                    }
+                    if (other.getTopY() > topY) {
+                        topY = other.getTopY();
+                        anchorType = other.getAnchorType();
+                    }
+                    bottomY = Math.min(bottomY, other.getBottomY());
+                    joinedSegments += other.getLength();
+                    unlink(chunk, column, other);
+                    worldIndex.ropes--;
+                    stats.ropeRemoved(world, toKey, other.getLength());
+                    // The run grew, so look again from the start of the column
+                    other = chunk.columns[column];
+                }
+
+                Rope copy = new Rope(rope.getWorldId(), x, topY, bottomY, z, anchorType);
+                copy.next = chunk.columns[column];
+                chunk.columns[column] = copy;
+                chunk.ropes++;
+                // Overlapping blocks were counted in both ropes
+                worldIndex.segments += copy.getLength() - rope.getLength() - joinedSegments;
+                if (fromKey != toKey) {
+                    stats.ropeRemoved(world, fromKey, rope.getLength());
+                    stats.ropeAdded(world, toKey, copy.getLength());
+                } else if (copy.getLength() != rope.getLength()) {
+                    stats.ropeResized(world, toKey, rope.getLength(), copy.getLength());
+                }
+
+                markDirty(world, worldIndex, toKey);
+                chunk.epoch = ++worldIndex.epoch;
+                moved.add(copy);
+            }
+            return moved;
+        }
+    }
+
+    private void markDirty(World world, WorldIndex worldIndex, long chunkKey) {
+        if (worldIndex.dirtyChunks.add(chunkKey) && dirtyListener != null) {
+            dirtyListener.chunkDirtied(world, chunkKeyX(chunkKey), chunkKeyZ(chunkKey));
+        }
+    }
+
+    private boolean unlink(ChunkRopes chunk, int column, Rope rope) {
+        Rope previous = null;
+        for (Rope current = chunk.columns[column]; current != null; current = current.next) {
+            if (current == rope) {
+                if (previous == null) {
+                    chunk.columns[column] = current.next;
+                } else {
+                    previous.next = current.next;
+                }
+                current.next = null;
+                current.markRemoved();
+                chunk.ropes--;
+                return true;
+            }
+            previous = current;
+        }
+        return false;
+    }
+
+    // ==================== CHUNK LIFECYCLE ====================
+
+    /**
+     * Adds a rope read from storage for a chunk that just loaded.
+     * Does not mark the chunk dirty.
+     */
+    public void loadRope(World world, int x, int topY, int bottomY, int z, Rope.AnchorType anchorType) {
+        WorldIndex worldIndex = worlds.computeIfAbsent(world.getUID(), id -> new WorldIndex());
+        synchronized (worldIndex) {
+            long chunkKey = chunkKey(x >> 4, z >> 4);
+            int column = column(x, z);
+
+            // Skip runs that overlap something already indexed (e.g. from legacy display migration)
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+            if (chunk != null) {
+                for (Rope rope = chunk.columns[column]; rope != null; rope = rope.next) {
+                    if (rope.getTopY() >= bottomY && rope.getBottomY() <= topY) return;
+                }
+            } else {
+                chunk = worldIndex.createChunk(chunkKey);
+                worldIndex.chunks.put(chunkKey, chunk);
+            }
+
+            Rope rope = new Rope(world.getUID(), x, topY, bottomY, z, anchorType);
+            rope.next = chunk.columns[column];
+            chunk.columns[column] = rope;
+            chunk.ropes++;
+            worldIndex.ropes++;
+            worldIndex.segments += rope.getLength();
+            chunk.epoch = ++worldIndex.epoch;
+        }
+    }
+
+    /**
+     * Drops all ropes of a chunk that is unloading.
+     */
+    public void unloadChunk(World world, int chunkX, int chunkZ) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return;
+        synchronized (worldIndex) {
+            long chunkKey = chunkKey(chunkX, chunkZ);
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey);
+            if (chunk != null) {
+                worldIndex.epoch++;
+                worldIndex.dropChunk(chunkKey);
+                for (Rope head : chunk.columns) {
+                    for (Rope rope = head; rope != null; rope = rope.next) {
+                        worldIndex.segments -= rope.getLength();
+                        worldIndex.ropes--;
+                        rope.markRemoved();
+                    }
+                }
+            }
+            worldIndex.dirtyChunks.remove(chunkKey);
+        }
+    }
+
+    /**
+     * Returns the ropes of a chunk, or an empty list.
+     */
+    public List<Rope> getChunkRopes(World world, int chunkX, int chunkZ) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return List.of();
+        synchronized (worldIndex) {
+            ChunkRopes chunk = worldIndex.chunks.get(chunkKey(chunkX, chunkZ));
+            if (chunk == null) return List.of();
+
+            List<Rope> result = new ArrayList<>(chunk.ropes);
+            for (Rope head : chunk.columns) {
+                for (Rope rope = head; rope != null; rope = rope.next) {
+                    result.add(rope);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the keys of all chunks that currently hold ropes.
+     */
+    public long[] getChunks(World world) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return NO_CHUNKS;
+        synchronized (worldIndex) {
+            return worldIndex.chunks.keys();
+        }
+    }
+
+    // ==================== MUTATION EPOCHS ====================
+
+    /**
+     * Returns a counter that changes whenever any rope in the world changes,
+     * loads or unloads.
+     */
+    public long getWorldEpoch(World world) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        return worldIndex == null ? 0 : worldIndex.epoch;
+    }
+
+    /**
+     * Returns the latest mutation epoch of the chunks covering a block area.
+     * Changes whenever ropes are placed, extended, broken, loaded or unloaded in
+     * any of them, and whenever any chunk of the world loses its last rope.
+     */
+    public long getAreaEpoch(World world, int minX, int minZ, int maxX, int maxZ) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return 0;
+        synchronized (worldIndex) {
+
+            // A chunk that lost its last rope is no longer in the map, so any such loss counts
+            long epoch = worldIndex.droppedEpoch;
+            for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    ChunkRopes chunk = worldIndex.chunks.get(chunkKey(chunkX, chunkZ));
+                    if (chunk != null && chunk.epoch > epoch) {
+                        epoch = chunk.epoch;
+                    }
+                }
+            }
+            return epoch;
+        }
+    }
+
+    // ==================== STORAGE STATE ====================
+
+    public void setDirtyListener(DirtyListener listener) {
+        this.dirtyListener = listener;
+    }
+
+    public boolean isDirty(World world, int chunkX, int chunkZ) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return false;
+        synchronized (worldIndex) {
+            return worldIndex.dirtyChunks.contains(chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    public void markClean(World world, int chunkX, int chunkZ) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return;
+        synchronized (worldIndex) {
+            worldIndex.dirtyChunks.remove(chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Returns the keys of chunks whose ropes changed since they were last saved.
+     */
+    public long[] getDirtyChunks(World world) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        if (worldIndex == null) return NO_CHUNKS;
+        synchronized (worldIndex) {
+            return worldIndex.dirtyChunks.toArray();
+        }
+    }
+
+    /**
+     * Returns the number of indexed rope segments in a world.
+     */
+    public int size(World world) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        return worldIndex == null ? 0 : worldIndex.segments;
+    }
+
+    /**
+     * Returns the number of indexed ropes in a world.
+     */
+    public int ropeCount(World world) {
+        WorldIndex worldIndex = worlds.get(world.getUID());
+        return worldIndex == null ? 0 : worldIndex.ropes;
+    }
+
+    public void clearWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+}
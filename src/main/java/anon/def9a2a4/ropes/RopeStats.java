@@ -0,0 +1,292 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live rope statistics per world and per chunk, covering unloaded chunks too.
+ *
+ * Counters are updated by {@link RopeIndex} as ropes are placed, extended and
+ * broken, so reporting never scans entities or chunks. Each world's figures are
+ * kept in the world's PersistentDataContainer and read on first use, and a
+ * chunk's figures are corrected from its stored ropes whenever it loads.
+ */
+public class RopeStats {
+    private static final int VERSION = 1;
+    private static final int[] NO_LENGTHS = new int[0];
+
+    private final RopesPlugin plugin;
+    private final NamespacedKey STATS_KEY;
+    private final Map<UUID, WorldStats> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * A snapshot of one world's figures.
+     *
+     * @param densest Up to the requested number of chunks with the most segments, densest first
+     */
+    public record Summary(long segments, long ropes, int maxLength, List<ChunkDensity> densest) {
+        public double averageLength() {
+            return ropes == 0 ? 0 : (double) segments / ropes;
+        }
+    }
+
+    public record ChunkDensity(int chunkX, int chunkZ, int segments) {}
+
+    private static class WorldStats {
+        final LongObjectMap<ChunkStats> chunks = new LongObjectMap<>();
+        // Chunks ordered by segment count, densest first
+        final TreeSet<ChunkStats> byDensity = new TreeSet<>(
+            Comparator.comparingInt((ChunkStats chunk) -> -chunk.segments).thenComparingLong(chunk -> chunk.key));
+        // Number of ropes of each length
+        final TreeMap<Integer, Integer> lengths = new TreeMap<>();
+        long segments;
+        long ropes;
+        boolean dirty;
+    }
+
+    private static class ChunkStats {
+        final long key;
+        int segments;
+        // Lengths of the ropes in this chunk, in no particular order
+        int[] lengths = NO_LENGTHS;
+        int ropes;
+
+        ChunkStats(long key) {
+            this.key = key;
+        }
+    }
+
+    public RopeStats(RopesPlugin plugin) {
+        this.plugin = plugin;
+        this.STATS_KEY = new NamespacedKey(plugin, "rope_stats");
+    }
+
+    // ==================== UPDATES ====================
+
+    public void ropeAdded(World world, long chunkKey, int length) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            addLength(stats, chunkKey, length);
+            stats.dirty = true;
+        }
+    }
+
+    public void ropeRemoved(World world, long chunkKey, int length) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            removeLength(stats, chunkKey, length);
+            stats.dirty = true;
+        }
+    }
+
+    public void ropeResized(World world, long chunkKey, int oldLength, int newLength) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            removeLength(stats, chunkKey, oldLength);
+            addLength(stats, chunkKey, newLength);
+            stats.dirty = true;
+        }
+    }
+
+    /**
+     * Replaces a chunk's figures with the ropes actually stored in it.
+     * Picks up chunks last saved before statistics existed, or after a crash.
+     */
+    public void reconcileChunk(World world, long chunkKey, int[] lengths) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            ChunkStats chunk = stats.chunks.get(chunkKey);
+            int[] known = chunk == null ? NO_LENGTHS : Arrays.copyOf(chunk.lengths, chunk.ropes);
+            int[] actual = lengths.clone();
+            Arrays.sort(known);
+            Arrays.sort(actual);
+            if (Arrays.equals(known, actual)) return;
+
+            for (int length : known) {
+                removeLength(stats, chunkKey, length);
+            }
+            for (int length : actual) {
+                addLength(stats, chunkKey, length);
+            }
+            stats.dirty = true;
+        }
+    }
+
+    private void addLength(WorldStats stats, long chunkKey, int length) {
+        ChunkStats chunk = stats.chunks.computeIfAbsent(chunkKey, ChunkStats::new);
+        stats.byDensity.remove(chunk);
+        if (chunk.ropes == chunk.lengths.length) {
+            chunk.lengths = Arrays.copyOf(chunk.lengths, Math.max(4, chunk.ropes * 2));
+        }
+        chunk.lengths[chunk.ropes++] = length;
+        chunk.segments += length;
+        stats.byDensity.add(chunk);
+
+        stats.lengths.merge(length, 1, Integer::sum);
+        stats.segments += length;
+        stats.ropes++;
+    }
+
+    private void removeLength(WorldStats stats, long chunkKey, int length) {
+        ChunkStats chunk = stats.chunks.get(chunkKey);
+        if (chunk == null) return;
+
+        for (int i = 0; i < chunk.ropes; i++) {
+            if (chunk.lengths[i] == length) {
+                stats.byDensity.remove(chunk);
+                chunk.lengths[i] = chunk.lengths[--chunk.ropes];
+                chunk.segments -= length;
+                if (chunk.ropes == 0) {
+                    stats.chunks.remove(chunkKey);
+                } else {
+                    stats.byDensity.add(chunk);
+                }
+
+                stats.lengths.computeIfPresent(length, (key, count) -> count == 1 ? null : count - 1);
+                stats.segments -= length;
+                stats.ropes--;
+                return;
+            }
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Returns a world's figures and its densest chunks.
+     *
+     * @param densest How many of the densest chunks to include
+     */
+    public Summary getSummary(World world, int densest) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            List<ChunkDensity> chunks = new ArrayList<>(Math.min(densest, stats.byDensity.size()));
+            for (ChunkStats chunk : stats.byDensity) {
+                if (chunks.size() >= densest) break;
+                chunks.add(new ChunkDensity(RopeIndex.chunkKeyX(chunk.key), RopeIndex.chunkKeyZ(chunk.key), chunk.segments));
+            }
+            int maxLength = stats.lengths.isEmpty() ? 0 : stats.lengths.lastKey();
+            return new Summary(stats.segments, stats.ropes, maxLength, chunks);
+        }
+    }
+
+    /**
+     * Returns the keys of every chunk known to hold ropes, loaded or not.
+     */
+    public long[] getChunks(World world) {
+        WorldStats stats = statsFor(world);
+        synchronized (stats) {
+            return stats.chunks.keys();
+        }
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    private WorldStats statsFor(World world) {
+        return worlds.computeIfAbsent(world.getUID(), id -> loadWorld(world));
+    }
+
+    /**
+     * Reads a world's figures from its PersistentDataContainer.
+     */
+    private WorldStats loadWorld(World world) {
+        WorldStats stats = new WorldStats();
+        byte[] data = world.getPersistentDataContainer().get(STATS_KEY, PersistentDataType.BYTE_ARRAY);
+        if (data == null) return stats;
+
+        try {
+            decode(data, stats);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Ignoring invalid rope statistics for " + world.getName() + ": " + e.getMessage());
+            return new WorldStats();
+        }
+        return stats;
+    }
+
+    /**
+     * Writes a world's figures to its PersistentDataContainer if they changed.
+     */
+    public void saveWorld(World world) {
+        WorldStats stats = worlds.get(world.getUID());
+        if (stats == null) return;
+
+        byte[] data;
+        synchronized (stats) {
+            if (!stats.dirty) return;
+            data = encode(stats);
+            stats.dirty = false;
+        }
+        world.getPersistentDataContainer().set(STATS_KEY, PersistentDataType.BYTE_ARRAY, data);
+    }
+
+    public void saveAll() {
+        for (World world : plugin.getServer().getWorlds()) {
+            saveWorld(world);
+        }
+    }
+
+    public void unloadWorld(World world) {
+        saveWorld(world);
+        worlds.remove(world.getUID());
+    }
+
+    /*
+     * Format (version 1):
+     *   byte    version
+     *   varint  chunk count
+     *   per chunk:
+     *     zigzag varint  chunk x
+     *     zigzag varint  chunk z
+     *     varint         rope count
+     *     varint         length of each rope
+     */
+    private static byte[] encode(WorldStats stats) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + stats.chunks.size() * 8);
+        out.write(VERSION);
+        RopeChunkCodec.writeVarInt(out, stats.chunks.size());
+        stats.chunks.forEachValue(chunk -> {
+            RopeChunkCodec.writeVarInt(out, RopeChunkCodec.zigzag(RopeIndex.chunkKeyX(chunk.key)));
+            RopeChunkCodec.writeVarInt(out, RopeChunkCodec.zigzag(RopeIndex.chunkKeyZ(chunk.key)));
+            RopeChunkCodec.writeVarInt(out, chunk.ropes);
+            for (int i = 0; i < chunk.ropes; i++) {
+                RopeChunkCodec.writeVarInt(out, chunk.lengths[i]);
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private void decode(byte[] data, WorldStats stats) {
+        RopeChunkCodec.Reader in = new RopeChunkCodec.Reader(data);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown rope statistics version " + version);
+        }
+
+        int chunks = in.readVarInt();
+        for (int c = 0; c < chunks; c++) {
+            int chunkX = RopeChunkCodec.unzigzag(in.readVarInt());
+            int chunkZ = RopeChunkCodec.unzigzag(in.readVarInt());
+            long chunkKey = RopeIndex.chunkKey(chunkX, chunkZ);
+            int ropes = in.readVarInt();
+            for (int r = 0; r < ropes; r++) {
+                int length = in.readVarInt();
+                if (length < 1) {
+                    throw new IllegalArgumentException("Invalid rope length " + length);
+                }
+                addLength(stats, chunkKey, length);
+            }
+        }
+    }
+}
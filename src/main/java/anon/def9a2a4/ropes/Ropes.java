@@ -4,59 +4,59 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Core rope placement, breaking, and detection logic.
  */
 public class Ropes {
+    // Displays or blocks removed per slice when breaking a rope through the mutation queue
+    private static final int BREAK_BATCH = 32;
+
     private final RopesPlugin plugin;
     private final Display display;
+    private final RopeIndex index;
+    // Ropes with a BreakJob under way, which stay indexed until their last block is cleared
+    private final Set<Rope> breaking = ConcurrentHashMap.newKeySet();
 
-    public Ropes(RopesPlugin plugin, Display display) {
+    public Ropes(RopesPlugin plugin, Display display, RopeIndex index) {
         this.plugin = plugin;
         this.display = display;
+        this.index = index;
     }
 
     /**
-     * Places a rope hanging down from the anchor location.
+     * Places a rope hanging down from the anchor location. Never loads a chunk;
+     * nothing is placed if the anchor's chunk isn't loaded.
      *
      * @param anchor The location to start placing rope from (will be the topmost rope block)
      * @param length The desired length in meters/blocks
-     * @return The actual number of blocks placed (may be less if obstructed)
+     * @return The actual number of blocks placed (may be less if obstructed or unloaded)
      */
     public int placeRope(Location anchor, int length) {
         World world = anchor.getWorld();
         if (world == null) return 0;
+        if (!world.isChunkLoaded(anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4)) return 0;
 
         Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+        Rope.AnchorType anchorType = anchorTypeAbove(anchor.getBlock());
         int placed = 0;
 
         for (int i = 0; i < length; i++) {
             Location loc = anchor.clone().subtract(0, i, 0);
-            Block block = loc.getBlock();
-
-            // Check world boundaries
-            if (loc.getY() < world.getMinHeight()) {
-                break;
-            }
-
-            // Check if we can place here (air or replaceable)
-            if (!block.isEmpty() && !block.isLiquid() && !block.isReplaceable()) {
+            if (!placeSegment(world, loc, chainMaterial, anchorType)) {
                 break;
             }
-
-            // Check if chunk is loaded
-            if (!world.isChunkLoaded(block.getChunk())) {
-                break;
-            }
-
-            // Place chain block and display entity
-            block.setType(chainMaterial);
-            display.spawnRopeDisplay(loc);
             placed++;
         }
 
@@ -65,70 +65,169 @@ public class Ropes {
 
     /**
      * Places a rope with animation, one block at a time from top to bottom.
+     * The unfurl runs as a job on the shared {@link Animations} driver.
      *
      * @param anchor The location to start placing rope from (will be the topmost rope block)
      * @param length The desired length in meters/blocks
      * @param onComplete Callback invoked when placement finishes, receives the actual number of blocks placed
      */
     public void placeRopeAnimated(Location anchor, int length, Consumer<Integer> onComplete) {
+        startPlacement(anchor, length, 1, plugin.getConfiguration().getAnimationTicksPerBlock(), true, onComplete);
+    }
+
+    /**
+     * Places a rope without stalling the main thread, for when the result can wait.
+     * The anchor's chunk is loaded asynchronously if needed, and the rope is placed
+     * in batches of blocks through the {@link MutationQueue}: right away while this
+     * tick's budget allows, and over later ticks otherwise.
+     *
+     * @param anchor The location to start placing rope from (will be the topmost rope block)
+     * @param length The desired length in meters/blocks
+     * @param onComplete Callback invoked when placement finishes, receives the actual number of blocks placed
+     */
+    public void placeRopeAsync(Location anchor, int length, Consumer<Integer> onComplete) {
+        startPlacement(anchor, length, plugin.getConfiguration().getPlacementBlocksPerTick(), 1, false, onComplete);
+    }
+
+    /**
+     * Starts a placement job once the anchor's chunk is loaded, loading it
+     * asynchronously first if needed. A chunk loaded this way is held with a
+     * plugin ticket until the job finishes.
+     *
+     * @param animated Whether the job runs on the {@link Animations} driver, or in batches through the mutation queue
+     */
+    private void startPlacement(Location anchor, int length, int blocksPerStep, int ticksPerStep, boolean animated,
+                                Consumer<Integer> onComplete) {
         World world = anchor.getWorld();
         if (world == null) {
             if (onComplete != null) onComplete.accept(0);
             return;
         }
 
-        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
-        int ticksPerBlock = plugin.getConfiguration().getAnimationTicksPerBlock();
-
-        new BukkitRunnable() {
-            int currentIndex = 0;
-            int placed = 0;
-
-            @Override
-            public void run() {
-                try {
-                    if (currentIndex >= length) {
-                        cancel();
-                        if (onComplete != null) onComplete.accept(placed);
-                        return;
-                    }
+        int chunkX = anchor.getBlockX() >> 4;
+        int chunkZ = anchor.getBlockZ() >> 4;
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            submitPlacement(new PlacementJob(anchor, length, blocksPerStep, ticksPerStep, false, onComplete), animated);
+            return;
+        }
 
-                    Location loc = anchor.clone().subtract(0, currentIndex, 0);
-                    Block block = loc.getBlock();
+        world.getChunkAtAsync(chunkX, chunkZ).whenComplete((chunk, error) -> {
+            if (chunk == null) {
+                if (onComplete != null) onComplete.accept(0);
+                return;
+            }
+            plugin.getScheduling().runAt(anchor, () -> {
+                plugin.getScheduling().holdChunk(world, chunkX, chunkZ);
+                submitPlacement(new PlacementJob(anchor, length, blocksPerStep, ticksPerStep, true, onComplete), animated);
+            });
+        });
+    }
 
-                    // Check world boundaries
-                    if (loc.getY() < world.getMinHeight()) {
-                        cancel();
-                        if (onComplete != null) onComplete.accept(placed);
-                        return;
-                    }
+    private void submitPlacement(PlacementJob job, boolean animated) {
+        if (animated) {
+            plugin.getAnimations().submit(job);
+        } else {
+            plugin.getMutations().submit(MutationQueue.Priority.PLAYER, job.world, job.x >> 4, job.z >> 4,
+                job::placeBatch);
+        }
+    }
 
-                    // Check if we can place here (air or replaceable)
-                    if (!block.isEmpty() && !block.isLiquid() && !block.isReplaceable()) {
-                        cancel();
-                        if (onComplete != null) onComplete.accept(placed);
-                        return;
-                    }
+    /**
+     * Places a rope top to bottom, a few blocks per step.
+     */
+    private class PlacementJob extends Animations.Job {
+        private final World world;
+        private final int x;
+        private final int topY;
+        private final int z;
+        private final int length;
+        private final int blocksPerStep;
+        private final Material chainMaterial;
+        private final Rope.AnchorType anchorType;
+        private final boolean holdsChunk;
+        private final Consumer<Integer> onComplete;
+        private int placed;
+
+        /**
+         * @param holdsChunk Whether the job holds the anchor's chunk loaded, and lets go of it when done
+         */
+        PlacementJob(Location anchor, int length, int blocksPerStep, int ticksPerStep, boolean holdsChunk,
+                     Consumer<Integer> onComplete) {
+            super(anchor.clone(), ticksPerStep);
+            this.world = anchor.getWorld();
+            this.x = anchor.getBlockX();
+            this.topY = anchor.getBlockY();
+            this.z = anchor.getBlockZ();
+            this.length = length;
+            this.blocksPerStep = Math.max(1, blocksPerStep);
+            this.chainMaterial = plugin.getConfiguration().getChainMaterial();
+            this.anchorType = anchorTypeAbove(anchor.getBlock());
+            this.holdsChunk = holdsChunk;
+            this.onComplete = onComplete;
+        }
 
-                    // Check if chunk is loaded
-                    if (!world.isChunkLoaded(block.getChunk())) {
-                        cancel();
-                        if (onComplete != null) onComplete.accept(placed);
-                        return;
-                    }
+        @Override
+        protected boolean step() {
+            for (int i = 0; i < blocksPerStep && placed < length; i++) {
+                Location loc = new Location(world, x, topY - placed, z);
+                if (!placeSegment(world, loc, chainMaterial, anchorType)) return false;
+                placed++;
+            }
+            return placed < length;
+        }
 
-                    // Place chain block and display entity
-                    block.setType(chainMaterial);
-                    display.spawnRopeDisplay(loc);
-                    placed++;
-                    currentIndex++;
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Error during animated rope placement: " + e.getMessage());
-                    cancel();
-                    if (onComplete != null) onComplete.accept(placed);
-                }
+        @Override
+        protected void complete() {
+            if (holdsChunk) {
+                plugin.getScheduling().releaseChunk(world, x >> 4, z >> 4);
+            }
+            if (onComplete != null) onComplete.accept(placed);
+        }
+
+        /**
+         * Places one batch as a slice of mutation queue work, and finishes the
+         * job after the last one or if a batch fails.
+         */
+        boolean placeBatch() {
+            boolean more;
+            try {
+                more = step();
+            } catch (RuntimeException e) {
+                complete();
+                throw e;
             }
-        }.runTaskTimer(plugin, 0, ticksPerBlock);
+            if (!more) complete();
+            return more;
+        }
+    }
+
+    /**
+     * Places a single rope segment and its display.
+     *
+     * @return false if the block is out of bounds, obstructed, or in an unloaded chunk
+     */
+    private boolean placeSegment(World world, Location loc, Material chainMaterial, Rope.AnchorType anchorType) {
+        // Check world boundaries
+        if (loc.getY() < world.getMinHeight()) {
+            return false;
+        }
+
+        // Check if chunk is loaded
+        if (!world.isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
+            return false;
+        }
+
+        // Check if we can place here (air or replaceable)
+        Block block = loc.getBlock();
+        if (!block.isEmpty() && !block.isLiquid() && !block.isReplaceable()) {
+            return false;
+        }
+
+        // Place chain block and display entity
+        block.setType(chainMaterial);
+        Rope rope = index.addSegment(loc, anchorType);
+        display.onSegmentPlaced(world, rope, loc);
+        return true;
     }
 
     /**
@@ -139,25 +238,203 @@ public class Ropes {
      * @return The total length of the rope that was broken
      */
     public int breakRope(Location anyRopeBlock) {
-        Location anchor = findRopeAnchor(anyRopeBlock);
-        if (anchor == null) return 0;
+        if (!isRopeBlock(anyRopeBlock)) return 0;
+        return breakRope(anyRopeBlock.getWorld(), index.getRope(anyRopeBlock));
+    }
 
-        World world = anchor.getWorld();
-        if (world == null) return 0;
+    /**
+     * Removes a single segment from the index, shortening or splitting its rope,
+     * and brings the displays in line. The block itself is left alone. In merged
+     * mode each remaining part gets its display resized, and a display hanging
+     * from a removed top is replaced.
+     */
+    public void removeSegment(World world, int x, int y, int z) {
+        Rope rope = index.getRope(world, x, y, z);
+        if (rope == null) return;
+        int topY = rope.getTopY();
+        index.removeSegment(world, x, y, z);
+
+        if (plugin.getConfiguration().getDisplayMode() == Config.DisplayMode.PER_BLOCK) {
+            display.removeRopeDisplay(new Location(world, x, y, z));
+            return;
+        }
+        if (y == topY) {
+            display.removeRopeDisplay(new Location(world, x, topY, z));
+        }
+        Rope upper = index.getRope(world, x, y + 1, z);
+        if (upper != null) {
+            display.updateRopeDisplay(world, upper);
+        }
+        Rope lower = index.getRope(world, x, y - 1, z);
+        if (lower != null) {
+            display.updateRopeDisplay(world, lower);
+        }
+    }
 
-        int length = 0;
-        Location current = anchor.clone();
+    /**
+     * Breaks an indexed rope, removing its record, displays and any chain blocks
+     * still in its column.
+     *
+     * @return The length of the rope that was broken
+     */
+    public int breakRope(World world, Rope rope) {
+        index.removeRope(world, rope);
+
+        display.removeRopeDisplays(world, rope);
 
         // Remove rope blocks going downward
-        while (isRopeBlock(current)) {
-            Block block = current.getBlock();
-            display.removeRopeDisplay(current);
-            block.setType(Material.AIR);
-            length++;
-            current.subtract(0, 1, 0);
+        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+        for (int y = rope.getTopY(); y >= rope.getBottomY(); y--) {
+            Block block = world.getBlockAt(rope.getX(), y, rope.getZ());
+            if (block.getType() == chainMaterial) {
+                block.setType(Material.AIR);
+            }
+        }
+
+        return rope.getLength();
+    }
+
+    /**
+     * Breaks a rope and drops its coils through the mutation queue: right away if
+     * this tick's budget allows, otherwise on a later tick. Does nothing if the rope
+     * is already gone by then.
+     */
+    public void breakAndDrop(World world, Rope rope, Location dropAt, MutationQueue.Priority priority) {
+        plugin.getMutations().submit(priority, dropAt, breakInBatches(world, rope, length -> {
+            // A player sees their refund at once; everything else is merged per chunk and tick
+            if (priority == MutationQueue.Priority.PLAYER) {
+                dropRopeCoils(dropAt, length);
+            } else {
+                queueRopeCoils(dropAt, length);
+            }
+        }));
+    }
+
+    /**
+     * Returns mutation queue work that breaks an indexed rope like
+     * {@link #breakRope(World, Rope)}, {@value #BREAK_BATCH} displays or blocks per
+     * slice. The rope's record is shortened from the top as its blocks are cleared,
+     * so a break cut short, such as by a shutdown on Folia, leaves the unbroken part
+     * indexed and stored rather than as bare chain. Its chunk is held loaded until
+     * the last slice. Does nothing if the rope is already gone or being broken by then.
+     *
+     * @param onBroken Called after the last slice with the length of the rope that was broken
+     */
+    public MutationQueue.Work breakInBatches(World world, Rope rope, IntConsumer onBroken) {
+        return new BreakJob(world, rope, onBroken);
+    }
+
+    /**
+     * Breaks a rope a batch at a time: its displays first, then its blocks from the top down.
+     */
+    private class BreakJob implements MutationQueue.Work {
+        private final World world;
+        private final Rope rope;
+        private final IntConsumer onBroken;
+        private final Material chainMaterial;
+        private Iterator<Entity> displays;
+        private boolean holdsChunk;
+        private int length;
+        private int bottomY;
+        private int y;
+
+        BreakJob(World world, Rope rope, IntConsumer onBroken) {
+            this.world = world;
+            this.rope = rope;
+            this.onBroken = onBroken;
+            this.chainMaterial = plugin.getConfiguration().getChainMaterial();
+        }
+
+        @Override
+        public boolean step() {
+            // The rope stays indexed while it is broken; only one job may break it
+            if (displays == null && (rope.isRemoved() || !breaking.add(rope))) return false;
+
+            boolean more;
+            try {
+                more = breakBatch();
+            } catch (RuntimeException e) {
+                // The queue drops a job that throws; let go of the rope and its chunk
+                finish();
+                throw e;
+            }
+            if (!more) {
+                finish();
+                onBroken.accept(length);
+            }
+            return more;
+        }
+
+        private boolean breakBatch() {
+            if (displays == null) {
+                displays = display.findRopeDisplays(world, rope).iterator();
+                length = rope.getLength();
+                bottomY = rope.getBottomY();
+                y = rope.getTopY();
+            }
+
+            int batch = 0;
+            while (batch < BREAK_BATCH && displays.hasNext()) {
+                displays.next().remove();
+                batch++;
+            }
+            int topY = y;
+            for (; batch < BREAK_BATCH && y >= bottomY; batch++, y--) {
+                Block block = world.getBlockAt(rope.getX(), y, rope.getZ());
+                if (block.getType() == chainMaterial) {
+                    block.setType(Material.AIR);
+                }
+            }
+            if (y < topY) {
+                index.trimTop(world, rope, y);
+            }
+
+            if (y < bottomY) return false;
+            // Keep the rest of the rope from unloading between slices
+            if (!holdsChunk) {
+                plugin.getScheduling().holdChunk(world, rope.getX() >> 4, rope.getZ() >> 4);
+                holdsChunk = true;
+            }
+            return true;
         }
 
-        return length;
+        private void finish() {
+            if (holdsChunk) {
+                plugin.getScheduling().releaseChunk(world, rope.getX() >> 4, rope.getZ() >> 4);
+                holdsChunk = false;
+            }
+            breaking.remove(rope);
+        }
+    }
+
+    /**
+     * Moves whole ropes one block along with a piston. The piston moves the chain
+     * blocks itself; this shifts the rope records and teleports their displays,
+     * without dropping anything. In merged mode a rope that joins another at its
+     * new place gets one display for the joined rope.
+     *
+     * @param direction The direction the blocks are moving
+     */
+    public void moveRopes(World world, List<Rope> ropes, BlockFace direction) {
+        if (ropes.isEmpty()) return;
+
+        int dx = direction.getModX();
+        int dy = direction.getModY();
+        int dz = direction.getModZ();
+        for (Rope rope : ropes) {
+            display.moveRopeDisplays(world, rope, dx, dy, dz);
+        }
+        index.moveRopes(world, ropes, dx, dy, dz);
+
+        if (plugin.getConfiguration().getDisplayMode() != Config.DisplayMode.MERGED) return;
+        List<Rope> joined = new ArrayList<>();
+        for (Rope rope : ropes) {
+            Rope moved = index.getRope(world, rope.getX() + dx, rope.getTopY() + dy, rope.getZ() + dz);
+            if (moved == null || moved.getLength() == rope.getLength() || joined.contains(moved)) continue;
+            joined.add(moved);
+            display.removeRopeDisplays(world, moved);
+            display.spawnRopeDisplays(world, moved);
+        }
     }
 
     /**
@@ -168,14 +445,10 @@ public class Ropes {
      * @return The actual number of blocks added
      */
     public int extendRope(Location bottomBlock, int additionalLength) {
-        // Find the actual bottom by going down until we hit non-rope
-        Location current = bottomBlock.clone();
-        while (isRopeBlock(current.clone().subtract(0, 1, 0))) {
-            current.subtract(0, 1, 0);
-        }
-
         // Start placing from one block below the current bottom
-        Location placeStart = current.clone().subtract(0, 1, 0);
+        Location placeStart = findRopeBottom(bottomBlock);
+        if (placeStart == null) return 0;
+        placeStart.subtract(0, 1, 0);
         return placeRope(placeStart, additionalLength);
     }
 
@@ -187,17 +460,34 @@ public class Ropes {
      * @param onComplete Callback invoked when extension finishes, receives the actual number of blocks added
      */
     public void extendRopeAnimated(Location bottomBlock, int additionalLength, Consumer<Integer> onComplete) {
-        // Find the actual bottom by going down until we hit non-rope
-        Location current = bottomBlock.clone();
-        while (isRopeBlock(current.clone().subtract(0, 1, 0))) {
-            current.subtract(0, 1, 0);
-        }
-
         // Start placing from one block below the current bottom
-        Location placeStart = current.clone().subtract(0, 1, 0);
+        Location placeStart = findRopeBottom(bottomBlock);
+        if (placeStart == null) {
+            if (onComplete != null) onComplete.accept(0);
+            return;
+        }
+        placeStart.subtract(0, 1, 0);
         placeRopeAnimated(placeStart, additionalLength, onComplete);
     }
 
+    /**
+     * Extends an existing rope from its bottom without stalling the main thread.
+     *
+     * @param bottomBlock The bottom block of the existing rope
+     * @param additionalLength How many meters to add
+     * @param onComplete Callback invoked when extension finishes, receives the actual number of blocks added
+     * @see #placeRopeAsync(Location, int, Consumer)
+     */
+    public void extendRopeAsync(Location bottomBlock, int additionalLength, Consumer<Integer> onComplete) {
+        Location placeStart = findRopeBottom(bottomBlock);
+        if (placeStart == null) {
+            if (onComplete != null) onComplete.accept(0);
+            return;
+        }
+        placeStart.subtract(0, 1, 0);
+        placeRopeAsync(placeStart, additionalLength, onComplete);
+    }
+
     /**
      * Finds the topmost rope block (anchor) from any position in the rope.
      *
@@ -206,15 +496,7 @@ public class Ropes {
      */
     public Location findRopeAnchor(Location ropeBlock) {
         if (!isRopeBlock(ropeBlock)) return null;
-
-        Location current = ropeBlock.clone();
-
-        // Trace upward until we hit non-rope
-        while (isRopeBlock(current.clone().add(0, 1, 0))) {
-            current.add(0, 1, 0);
-        }
-
-        return current;
+        return index.getRope(ropeBlock).getTopLocation(ropeBlock.getWorld());
     }
 
     /**
@@ -225,62 +507,66 @@ public class Ropes {
      */
     public int getRopeLength(Location anchor) {
         if (!isRopeBlock(anchor)) return 0;
-
-        int length = 0;
-        Location current = anchor.clone();
-
-        while (isRopeBlock(current)) {
-            length++;
-            current.subtract(0, 1, 0);
-        }
-
-        return length;
+        return anchor.getBlockY() - index.getRope(anchor).getBottomY() + 1;
     }
 
     /**
      * Checks if a location contains a rope block.
-     * A rope block is a chain block with a rope display entity.
+     * A rope block is an indexed segment that is still a chain block.
      *
      * @param loc The location to check
      * @return true if this is a rope block
      */
     public boolean isRopeBlock(Location loc) {
         if (loc == null || loc.getWorld() == null) return false;
+        return isRopeBlock(loc.getWorld(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+    }
 
-        Block block = loc.getBlock();
-        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+    /**
+     * Checks if the given block coordinates contain a rope block.
+     * Answers from the rope index; the block type is only read for indexed segments.
+     */
+    public boolean isRopeBlock(World world, int x, int y, int z) {
+        return getRope(world, x, y, z) != null;
+    }
 
-        // Check if block is chain material
-        if (block.getType() != chainMaterial) {
-            return false;
+    /**
+     * Gets the rope record containing the given block coordinates.
+     * Answers from the rope index; the block type is only read for indexed segments.
+     *
+     * @return The rope, or null if the block is not a rope block
+     */
+    public Rope getRope(World world, int x, int y, int z) {
+        Rope rope = index.getRope(world, x, y, z);
+        if (rope == null) {
+            return null;
         }
 
-        // Check for rope display entity
-        return display.findRopeDisplay(loc) != null;
+        // Guard against the chain having been replaced behind our back
+        if (world.getBlockAt(x, y, z).getType() != plugin.getConfiguration().getChainMaterial()) {
+            return null;
+        }
+        return rope;
     }
 
     /**
-     * Drops rope coils at a location for the given total length.
-     * Handles lengths greater than max coil length by dropping multiple coils.
+     * Drops rope coils at a location for the given total length, through the
+     * mutation queue at player priority.
+     * Lengths greater than the max coil length drop as stacked full coils plus one for the rest.
      *
      * @param loc Where to drop the coils
      * @param totalLength Total meters of rope to drop
      */
     public void dropRopeCoils(Location loc, int totalLength) {
-        if (totalLength <= 0) return;
-
-        World world = loc.getWorld();
-        if (world == null) return;
-
-        int maxLength = plugin.getConfiguration().getRopeCoilMaxLength();
-        int remaining = totalLength;
+        plugin.getCoilDrops().dropCoils(loc, totalLength, MutationQueue.Priority.PLAYER);
+    }
 
-        while (remaining > 0) {
-            int coilLength = Math.min(remaining, maxLength);
-            ItemStack coil = plugin.getItems().createRopeCoil(coilLength);
-            world.dropItemNaturally(loc, coil);
-            remaining -= coilLength;
-        }
+    /**
+     * Drops rope coils at the end of the tick, merged with other refunds in the same chunk.
+     * Used where many ropes break at once, so they don't each scatter their own items.
+     */
+    public void queueRopeCoils(Location loc, int totalLength) {
+        plugin.getCoilDrops().add(loc, totalLength);
     }
 
     /**
@@ -293,32 +579,37 @@ public class Ropes {
     public Location findNearestRope(Location center, double radius) {
         if (center == null || center.getWorld() == null) return null;
 
-        Location nearest = null;
+        World world = center.getWorld();
+        int nearestX = 0, nearestY = 0, nearestZ = 0;
+        boolean found = false;
         double nearestDistSq = Double.MAX_VALUE;
+        double radiusSq = radius * radius;
 
         int searchRadius = (int) Math.ceil(radius);
-        Block centerBlock = center.getBlock();
-
-        for (int dx = -searchRadius; dx <= searchRadius; dx++) {
-            for (int dy = -searchRadius; dy <= searchRadius; dy++) {
-                for (int dz = -searchRadius; dz <= searchRadius; dz++) {
-                    Block checkBlock = centerBlock.getRelative(dx, dy, dz);
-                    Location checkLoc = checkBlock.getLocation();
-
-                    Location blockCenter = checkLoc.clone().add(0.5, 0.5, 0.5);
-                    double distSq = center.distanceSquared(blockCenter);
-
-                    if (distSq <= radius * radius && isRopeBlock(checkLoc)) {
-                        if (distSq < nearestDistSq) {
-                            nearestDistSq = distSq;
-                            nearest = checkLoc;
-                        }
+        int cx = center.getBlockX();
+        int cy = center.getBlockY();
+        int cz = center.getBlockZ();
+
+        for (int x = cx - searchRadius; x <= cx + searchRadius; x++) {
+            for (int y = cy - searchRadius; y <= cy + searchRadius; y++) {
+                for (int z = cz - searchRadius; z <= cz + searchRadius; z++) {
+                    double ddx = x + 0.5 - center.getX();
+                    double ddy = y + 0.5 - center.getY();
+                    double ddz = z + 0.5 - center.getZ();
+                    double distSq = ddx * ddx + ddy * ddy + ddz * ddz;
+
+                    if (distSq <= radiusSq && distSq < nearestDistSq && isRopeBlock(world, x, y, z)) {
+                        nearestDistSq = distSq;
+                        nearestX = x;
+                        nearestY = y;
+                        nearestZ = z;
+                        found = true;
                     }
                 }
             }
         }
 
-        return nearest;
+        return found ? new Location(world, nearestX, nearestY, nearestZ) : null;
     }
 
     /**
@@ -329,14 +620,25 @@ public class Ropes {
      */
     public Location findRopeBottom(Location anyRopeBlock) {
         if (!isRopeBlock(anyRopeBlock)) return null;
+        return index.getRope(anyRopeBlock).getBottomLocation(anyRopeBlock.getWorld());
+    }
 
-        Location current = anyRopeBlock.clone();
-
-        // Trace downward until we hit non-rope
-        while (isRopeBlock(current.clone().subtract(0, 1, 0))) {
-            current.subtract(0, 1, 0);
-        }
+    /**
+     * Gets the rope record containing a block.
+     *
+     * @param anyRopeBlock Any location within the rope
+     * @return The rope, or null if not a rope
+     */
+    public Rope getRope(Location anyRopeBlock) {
+        if (!isRopeBlock(anyRopeBlock)) return null;
+        return index.getRope(anyRopeBlock);
+    }
 
-        return current;
+    /**
+     * Determines what a rope starting just below the given block would hang from.
+     */
+    private Rope.AnchorType anchorTypeAbove(Block topBlock) {
+        Material above = topBlock.getRelative(BlockFace.UP).getType();
+        return plugin.getConfiguration().isAnchorFence(above) ? Rope.AnchorType.FENCE : Rope.AnchorType.SOLID;
     }
 }
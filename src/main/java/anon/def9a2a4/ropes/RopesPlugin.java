@@ -1,14 +1,18 @@
 package anon.def9a2a4.ropes;
 
 import org.bstats.bukkit.Metrics;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.ShapedRecipe;
 import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.inventory.RecipeChoice;
 import org.bukkit.inventory.recipe.CraftingBookCategory;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.Arrays;
 import java.util.Map;
 
 public class RopesPlugin extends JavaPlugin {
@@ -16,7 +20,20 @@ public class RopesPlugin extends JavaPlugin {
     private Config configuration;
     private Items items;
     private Display display;
+    private RopeIndex ropeIndex;
+    private RopeStats ropeStats;
+    private Storage storage;
     private Ropes ropes;
+    private Climbing climbing;
+    private ClimbingListener climbingListener;
+    private ClimbableDatapack climbableDatapack;
+    private boolean serverClimbing;
+    private Animations animations;
+    private MutationQueue mutations;
+    private CoilDrops coilDrops;
+    private DisplayCulling culling;
+    private ResourcePack resourcePack;
+    private Scheduling scheduling;
 
     @Override
     public void onEnable() {
@@ -25,12 +42,36 @@ public class RopesPlugin extends JavaPlugin {
         // Load configuration
         configuration = new Config(this);
 
+        // Write out the bundled resource pack if item models are enabled
+        resourcePack = new ResourcePack(this);
+        resourcePack.export();
+
         // Initialize items manager
         items = new Items(this);
 
         // Initialize display and ropes managers
+        scheduling = new Scheduling(this);
         display = new Display(this);
-        ropes = new Ropes(this, display);
+        ropeStats = new RopeStats(this);
+        ropeIndex = new RopeIndex(ropeStats);
+        storage = new Storage(this, ropeIndex, ropeStats, scheduling);
+        animations = new Animations(this, scheduling);
+        mutations = new MutationQueue(this, scheduling);
+        coilDrops = new CoilDrops(this, scheduling);
+        ropes = new Ropes(this, display, ropeIndex);
+
+        // Emulate climbing on the server unless clients climb ropes natively through the datapack
+        climbing = new Climbing(this, ropes, ropeIndex, scheduling);
+        climbingListener = new ClimbingListener(climbing);
+        climbableDatapack = new ClimbableDatapack(this);
+        climbableDatapack.install();
+        updateClimbingMode();
+
+        culling = new DisplayCulling(this, display, ropeIndex, scheduling);
+        culling.start();
+
+        // Index ropes in chunks that are already loaded (startup or plugin reload)
+        indexLoadedRopes();
 
         // Register event listeners
         getServer().getPluginManager().registerEvents(new Listeners(this), this);
@@ -51,9 +92,73 @@ public class RopesPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Show hidden displays again for a plugin reload; on Folia players can't be reached from here
+        if (culling != null && !Scheduling.isFolia()) {
+            culling.stop();
+        }
+        // Finish queued breaks and refunds before saving; on Folia they stay undone and the queue reports them
+        if (mutations != null) {
+            mutations.drain();
+        }
+        if (coilDrops != null && !Scheduling.isFolia()) {
+            coilDrops.flushAll();
+        }
+        // On Folia, chunks can't be touched from here; Storage saves each change within a tick instead
+        if (storage != null && !Scheduling.isFolia()) {
+            storage.saveAll();
+        } else if (ropeStats != null) {
+            ropeStats.saveAll();
+        }
         getLogger().info("Ropes plugin disabled!");
     }
 
+    /**
+     * Reloads config.yml and rebuilds everything derived from it.
+     */
+    public void reloadConfiguration() {
+        configuration.load();
+        resourcePack.export();
+        items.reload();
+        display.reload();
+        climbableDatapack.install();
+        updateClimbingMode();
+        // Restart culling so interval and enabled changes take effect
+        culling.stop();
+        culling.start();
+    }
+
+    /**
+     * Runs the server-side climbing engine and its move listener only while the
+     * rope block is not climbable for clients; otherwise both are removed entirely.
+     */
+    public void updateClimbingMode() {
+        boolean emulate = !climbableDatapack.isActive();
+        if (emulate == serverClimbing) return;
+
+        serverClimbing = emulate;
+        if (emulate) {
+            climbing.start();
+            getServer().getPluginManager().registerEvents(climbingListener, this);
+        } else {
+            climbing.stop();
+            HandlerList.unregisterAll(climbingListener);
+            getLogger().info("Rope blocks are climbable for clients; server-side climbing is off.");
+        }
+    }
+
+    private void indexLoadedRopes() {
+        for (World world : getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                scheduling.runAt(world, chunk.getX(), chunk.getZ(), () -> {
+                    storage.loadChunk(chunk);
+                    if (chunk.isEntitiesLoaded()) {
+                        storage.loadDisplays(chunk, Arrays.asList(chunk.getEntities()));
+                    }
+                });
+            }
+        }
+    }
+
     private void registerRecipes() {
         // Rope Coil Recipe
         Config.RecipeConfig coilConfig = configuration.getRopeCoilRecipeConfig();
@@ -166,7 +271,47 @@ public class RopesPlugin extends JavaPlugin {
         return display;
     }
 
+    public RopeIndex getRopeIndex() {
+        return ropeIndex;
+    }
+
+    public RopeStats getRopeStats() {
+        return ropeStats;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
     public Ropes getRopes() {
         return ropes;
     }
+
+    public Climbing getClimbing() {
+        return climbing;
+    }
+
+    public DisplayCulling getCulling() {
+        return culling;
+    }
+
+    public Animations getAnimations() {
+        return animations;
+    }
+
+    public CoilDrops getCoilDrops() {
+        return coilDrops;
+    }
+
+    public MutationQueue getMutations() {
+        return mutations;
+    }
+
+    public ResourcePack getResourcePack() {
+        return resourcePack;
+    }
+
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
 }
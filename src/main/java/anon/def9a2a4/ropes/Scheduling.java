@@ -0,0 +1,147 @@
+package anon.def9a2a4.ropes;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Routes work to the thread that owns the blocks or entity it touches.
+ *
+ * Uses Paper's region and entity schedulers, which run on the main thread on a
+ * regular Paper server and on the owning region's thread on Folia. Work that is
+ * already on the right thread runs immediately.
+ */
+public class Scheduling {
+    private static final boolean FOLIA = detectFolia();
+
+    private final RopesPlugin plugin;
+    // Holders of the plugin's chunk ticket on each chunk
+    private final Map<HeldChunk, Integer> chunkHolds = new ConcurrentHashMap<>();
+
+    private record HeldChunk(UUID worldId, long chunkKey) {}
+
+    public Scheduling(RopesPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true when running on a region-threaded (Folia) server.
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Runs a task on the thread owning a location.
+     */
+    public void runAt(Location loc, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(loc)) {
+            task.run();
+        } else {
+            plugin.getServer().getRegionScheduler().execute(plugin, loc, task);
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning a chunk.
+     */
+    public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(world, chunkX, chunkZ)) {
+            task.run();
+        } else {
+            plugin.getServer().getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning a location after a delay.
+     */
+    public void runLaterAt(Location loc, Runnable task, long delayTicks) {
+        plugin.getServer().getRegionScheduler().runDelayed(plugin, loc, scheduled -> task.run(), delayTicks);
+    }
+
+    /**
+     * Runs a task on the thread owning a chunk after a delay.
+     */
+    public void runLaterAt(World world, int chunkX, int chunkZ, Runnable task, long delayTicks) {
+        plugin.getServer().getRegionScheduler().runDelayed(plugin, world, chunkX, chunkZ, scheduled -> task.run(), delayTicks);
+    }
+
+    /**
+     * Runs a task on the thread owning an entity. Dropped if the entity is removed first.
+     */
+    public void runFor(Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            entity.getScheduler().run(plugin, scheduled -> task.run(), null);
+        }
+    }
+
+    /**
+     * Repeats a task on the global thread (the main thread outside Folia), starting next tick.
+     * Must not touch blocks or entities directly; hand that off with {@link #runAt}.
+     */
+    public ScheduledTask runTimer(Consumer<ScheduledTask> task, long periodTicks) {
+        return plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task, 1, periodTicks);
+    }
+
+    /**
+     * Repeats a task on the thread owning a location, starting next tick.
+     */
+    public ScheduledTask runTimerAt(Location loc, Consumer<ScheduledTask> task, long periodTicks) {
+        return plugin.getServer().getRegionScheduler().runAtFixedRate(plugin, loc, task, 1, periodTicks);
+    }
+
+    /**
+     * Repeats a task on the thread owning an entity, starting next tick.
+     * Stops by itself when the entity is removed.
+     *
+     * @return The task, or null if the entity is already removed
+     */
+    public ScheduledTask runTimerFor(Entity entity, Consumer<ScheduledTask> task, long periodTicks) {
+        return entity.getScheduler().runAtFixedRate(plugin, task, null, 1, periodTicks);
+    }
+
+    /**
+     * Keeps a chunk loaded until a matching {@link #releaseChunk}. A plugin has one
+     * chunk ticket per chunk, shared by everything in it, so the ticket is added for
+     * the first holder and only removed when the last one lets go.
+     */
+    public void holdChunk(World world, int chunkX, int chunkZ) {
+        chunkHolds.compute(new HeldChunk(world.getUID(), RopeIndex.chunkKey(chunkX, chunkZ)), (chunk, holds) -> {
+            if (holds == null) {
+                world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+                return 1;
+            }
+            return holds + 1;
+        });
+    }
+
+    /**
+     * Lets go of a chunk taken with {@link #holdChunk}.
+     */
+    public void releaseChunk(World world, int chunkX, int chunkZ) {
+        chunkHolds.computeIfPresent(new HeldChunk(world.getUID(), RopeIndex.chunkKey(chunkX, chunkZ)), (chunk, holds) -> {
+            if (holds > 1) return holds - 1;
+            world.removePluginChunkTicket(chunkX, chunkZ, plugin);
+            return null;
+        });
+    }
+}
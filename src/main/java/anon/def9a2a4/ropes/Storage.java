@@ -0,0 +1,251 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persists ropes in each chunk's PersistentDataContainer.
+ * Chunk data is read into the {@link RopeIndex} when a chunk loads and
+ * written back when it unloads or its world saves, and on Folia also a tick
+ * after every change.
+ */
+public class Storage {
+    private static final int[] NO_LENGTHS = new int[0];
+
+    private final RopesPlugin plugin;
+    private final RopeIndex index;
+    private final RopeStats stats;
+    private final Scheduling scheduling;
+    private final NamespacedKey ROPE_DATA_KEY;
+
+    public Storage(RopesPlugin plugin, RopeIndex index, RopeStats stats, Scheduling scheduling) {
+        this.plugin = plugin;
+        this.index = index;
+        this.stats = stats;
+        this.scheduling = scheduling;
+        this.ROPE_DATA_KEY = new NamespacedKey(plugin, "rope_segments");
+        if (Scheduling.isFolia()) {
+            index.setDirtyListener(this::scheduleSave);
+        }
+    }
+
+    /**
+     * Saves a chunk a tick after its ropes first change. Used on Folia, where
+     * plugins are disabled before the final chunk save and their unload handlers
+     * are gone by then, so changes can't wait for the chunk to unload.
+     */
+    private void scheduleSave(World world, int chunkX, int chunkZ) {
+        scheduling.runLaterAt(world, chunkX, chunkZ, () -> {
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                saveChunk(world.getChunkAt(chunkX, chunkZ));
+            }
+        }, 1);
+    }
+
+    /**
+     * Reads a chunk's stored ropes into the index and checks the statistics against them.
+     * The anchor type is not stored; it is read back from the block above each rope.
+     *
+     * The data is decoded in full before anything is indexed. If it turns out to be
+     * invalid, nothing from it is kept and the chunk is rebuilt from its displays
+     * instead, where they are saved; see {@link #rebuildChunk}.
+     */
+    public void loadChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        long chunkKey = RopeIndex.chunkKey(chunk.getX(), chunk.getZ());
+        byte[] data = chunk.getPersistentDataContainer().get(ROPE_DATA_KEY, PersistentDataType.BYTE_ARRAY);
+        if (data == null) {
+            stats.reconcileChunk(world, chunkKey, NO_LENGTHS);
+            return;
+        }
+
+        List<Run> runs = new ArrayList<>();
+        try {
+            RopeChunkCodec.decode(data, chunk.getX(), chunk.getZ(),
+                (x, topY, bottomY, z) -> runs.add(new Run(x, topY, bottomY, z)));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid rope data in chunk " + chunk.getX() + ", " + chunk.getZ()
+                + " of " + world.getName() + " (" + e.getMessage() + "); rebuilding it from its displays");
+            rebuildChunk(chunk);
+            return;
+        }
+
+        Config config = plugin.getConfiguration();
+        int[] lengths = new int[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = runs.get(i);
+            Rope.AnchorType anchorType = config.isAnchorFence(world.getBlockAt(run.x(), run.topY() + 1, run.z()).getType())
+                ? Rope.AnchorType.FENCE : Rope.AnchorType.SOLID;
+            index.loadRope(world, run.x(), run.topY(), run.bottomY(), run.z(), anchorType);
+            lengths[i] = run.topY() - run.bottomY() + 1;
+        }
+        stats.reconcileChunk(world, chunkKey, lengths);
+    }
+
+    private record Run(int x, int topY, int bottomY, int z) {}
+
+    /**
+     * Indexes a chunk whose stored data is unusable from its rope displays, when
+     * displays are saved with the chunk. Only displays with a chain block behind
+     * them count; in merged mode each stands for the chain hanging below it. Ropes
+     * found this way mark the chunk dirty, so the bad data is overwritten on the
+     * next save.
+     *
+     * Displays whose entities are not loaded yet are indexed as they load, like
+     * displays of ropes placed before chunk storage existed. Without saved
+     * displays nothing tells a rope from a decorative chain, so the chunk is
+     * left unindexed.
+     */
+    private void rebuildChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        // The stored figures came from the same bad data; ropes found below are counted as they are added
+        stats.reconcileChunk(world, RopeIndex.chunkKey(chunk.getX(), chunk.getZ()), NO_LENGTHS);
+
+        Config config = plugin.getConfiguration();
+        if (!config.isPersistentDisplays()) {
+            plugin.getLogger().warning("Ropes in chunk " + chunk.getX() + ", " + chunk.getZ() + " of " + world.getName()
+                + " can't be rebuilt without saved displays; they are left unindexed");
+            return;
+        }
+        if (!chunk.isEntitiesLoaded()) return;
+
+        loadDisplays(chunk, Arrays.asList(chunk.getEntities()));
+    }
+
+    /**
+     * Brings a chunk's rope displays in line with its ropes once its entities are loaded.
+     *
+     * Rope displays index the rope block behind them, which migrates ropes placed
+     * before chunk storage existed and marks their chunk dirty so they are stored
+     * on the next save. A display with no chain block behind it is a leftover from
+     * a broken rope, not a rope, and is removed. In merged mode a display only sits
+     * at its rope's top block, so an unindexed one indexes the whole chain below it.
+     * Displays also pick up view settings changed since they were spawned.
+     *
+     * With non-persistent displays, displays of stored ropes that were saved before
+     * the switch are dropped, since the ropes get fresh ones; displays of ropes
+     * known only by them are kept, unsaved. Unsaved displays still in the world
+     * from before a plugin reload are kept as they are.
+     *
+     * Stored ropes with no display at all then get new ones, whatever the
+     * persistence setting, so chunks saved while displays were not persistent get
+     * theirs back after switching. Calling this again for the same chunk is harmless.
+     */
+    public void loadDisplays(Chunk chunk, Collection<? extends Entity> entities) {
+        World world = chunk.getWorld();
+        Config config = plugin.getConfiguration();
+        Material chainMaterial = config.getChainMaterial();
+        boolean persistent = config.isPersistentDisplays();
+        boolean merged = config.getDisplayMode() == Config.DisplayMode.MERGED;
+        Display display = plugin.getDisplay();
+        LongHashSet shown = new LongHashSet();
+        for (Entity entity : entities) {
+            if (!display.isRopeDisplay(entity)) continue;
+
+            Location loc = entity.getLocation();
+            if (loc.getBlock().getType() != chainMaterial) {
+                entity.remove();
+                continue;
+            }
+
+            if (!persistent) {
+                if (entity.isPersistent() && index.contains(loc)) {
+                    entity.remove();
+                    continue;
+                }
+                entity.setPersistent(false);
+            }
+            if (merged && !index.contains(loc)) {
+                indexChainBelow(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), chainMaterial);
+            } else {
+                index.addSegment(loc, Rope.AnchorType.SOLID);
+            }
+            display.applyViewSettings((ItemDisplay) entity);
+            shown.add(RopeIndex.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()));
+        }
+
+        for (Rope rope : index.getChunkRopes(world, chunk.getX(), chunk.getZ())) {
+            if (!hasDisplay(shown, rope)) {
+                display.spawnRopeDisplays(world, rope);
+            }
+        }
+    }
+
+    /**
+     * Indexes the contiguous chain blocks from a merged display's top block down,
+     * no longer than the longest rope chunk storage can hold.
+     */
+    private void indexChainBelow(World world, int x, int topY, int z, Material chainMaterial) {
+        int minY = Math.max(world.getMinHeight(), topY - RopeChunkCodec.MAX_RUN_LENGTH + 1);
+        for (int y = topY; y >= minY && world.getBlockAt(x, y, z).getType() == chainMaterial; y--) {
+            index.addSegment(world, x, y, z, Rope.AnchorType.SOLID);
+        }
+    }
+
+    private static boolean hasDisplay(LongHashSet shown, Rope rope) {
+        for (int y = rope.getTopY(); y >= rope.getBottomY(); y--) {
+            if (shown.contains(RopeIndex.pack(rope.getX(), y, rope.getZ()))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes a chunk's ropes to its PDC if they changed since the last save.
+     */
+    public void saveChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        if (!index.isDirty(world, chunk.getX(), chunk.getZ())) return;
+
+        List<Rope> ropes = index.getChunkRopes(world, chunk.getX(), chunk.getZ());
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        if (ropes.isEmpty()) {
+            pdc.remove(ROPE_DATA_KEY);
+        } else {
+            pdc.set(ROPE_DATA_KEY, PersistentDataType.BYTE_ARRAY, RopeChunkCodec.encode(ropes));
+        }
+        index.markClean(world, chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Saves a chunk that is unloading and drops it from the index.
+     */
+    public void unloadChunk(Chunk chunk) {
+        saveChunk(chunk);
+        index.unloadChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Flushes every dirty, loaded chunk of a world, each on the thread that owns it,
+     * and the world's statistics.
+     */
+    public void saveWorld(World world) {
+        stats.saveWorld(world);
+        for (long chunkKey : index.getDirtyChunks(world)) {
+            int chunkX = RopeIndex.chunkKeyX(chunkKey);
+            int chunkZ = RopeIndex.chunkKeyZ(chunkKey);
+            scheduling.runAt(world, chunkX, chunkZ, () -> {
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    saveChunk(world.getChunkAt(chunkX, chunkZ));
+                }
+            });
+        }
+    }
+
+    public void saveAll() {
+        for (World world : plugin.getServer().getWorlds()) {
+            saveWorld(world);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package anon.def9a2a4.ropes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RopeIndexTest {
+    private WorldMock world;
+    private RopeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ServerMock server = MockBukkit.mock();
+        RopesPlugin plugin = MockBukkit.load(RopesPlugin.class);
+        world = new WorldMock();
+        server.addWorld(world);
+        index = plugin.getRopeIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void moveJoinsRopeBelow() {
+        Rope upper = hang(0, 100, 96, Rope.AnchorType.SOLID);
+        Rope lower = hang(1, 94, 90, Rope.AnchorType.FENCE);
+
+        // Pushed west under the upper rope, with its top right below the upper rope's bottom
+        List<Rope> moved = index.moveRopes(world, List.of(lower), -1, 1, 0);
+
+        Rope joined = index.getRope(world, 0, 91, 0);
+        assertSame(moved.get(0), joined);
+        assertSame(joined, index.getRope(world, 0, 100, 0));
+        assertEquals(100, joined.getTopY());
+        assertEquals(91, joined.getBottomY());
+        assertEquals(Rope.AnchorType.SOLID, joined.getAnchorType());
+        assertTrue(upper.isRemoved());
+        assertEquals(1, index.ropeCount(world));
+        assertEquals(10, index.size(world));
+    }
+
+    @Test
+    void moveJoinsRopeAbove() {
+        hang(0, 100, 96, Rope.AnchorType.SOLID);
+        Rope lower = hang(0, 94, 90, Rope.AnchorType.FENCE);
+
+        // Pushed up into contact with the rope above, which keeps its anchor
+        index.moveRopes(world, List.of(lower), 0, 1, 0);
+
+        Rope joined = index.getRope(world, 0, 95, 0);
+        assertEquals(100, joined.getTopY());
+        assertEquals(91, joined.getBottomY());
+        assertEquals(Rope.AnchorType.SOLID, joined.getAnchorType());
+        assertEquals(1, index.ropeCount(world));
+        assertEquals(10, index.size(world));
+    }
+
+    @Test
+    void moveMergesOverlap() {
+        hang(0, 100, 96, Rope.AnchorType.SOLID);
+        Rope other = hang(1, 98, 90, Rope.AnchorType.SOLID);
+
+        index.moveRopes(world, List.of(other), -1, 0, 0);
+
+        Rope joined = index.getRope(world, 0, 90, 0);
+        assertEquals(100, joined.getTopY());
+        assertEquals(90, joined.getBottomY());
+        assertEquals(1, index.ropeCount(world));
+        assertEquals(11, index.size(world));
+    }
+
+    @Test
+    void moveLeavesDistantRopesApart() {
+        hang(0, 100, 96, Rope.AnchorType.SOLID);
+        Rope lower = hang(1, 93, 90, Rope.AnchorType.SOLID);
+
+        index.moveRopes(world, List.of(lower), -1, 0, 0);
+
+        assertEquals(96, index.getRope(world, 0, 100, 0).getBottomY());
+        assertEquals(93, index.getRope(world, 0, 90, 0).getTopY());
+        assertEquals(2, index.ropeCount(world));
+        assertEquals(9, index.size(world));
+    }
+
+    @Test
+    void trimTopKeepsUnbrokenPartIndexed() {
+        Rope rope = hang(0, 100, 91, Rope.AnchorType.FENCE);
+
+        index.trimTop(world, rope, 95);
+
+        assertSame(rope, index.getRope(world, 0, 91, 0));
+        assertEquals(95, rope.getTopY());
+        assertEquals(Rope.AnchorType.SOLID, rope.getAnchorType());
+        assertEquals(5, index.size(world));
+
+        index.trimTop(world, rope, 90);
+
+        assertTrue(rope.isRemoved());
+        assertEquals(0, index.ropeCount(world));
+        assertEquals(0, index.size(world));
+    }
+
+    @Test
+    void areaEpochChangesWhenChunkLosesLastRope() {
+        Rope rope = hang(0, 100, 96, Rope.AnchorType.SOLID);
+        // The neighbouring chunk changes last, so its epoch is the area's newest
+        hang(16, 100, 96, Rope.AnchorType.SOLID);
+        long before = index.getAreaEpoch(world, 0, 0, 31, 15);
+
+        index.removeRope(world, rope);
+
+        assertNotEquals(before, index.getAreaEpoch(world, 0, 0, 31, 15));
+    }
+
+    @Test
+    void areaEpochChangesWhenLastSegmentRemoved() {
+        hang(0, 100, 100, Rope.AnchorType.SOLID);
+        hang(16, 100, 96, Rope.AnchorType.SOLID);
+        long before = index.getAreaEpoch(world, 0, 0, 31, 15);
+
+        index.removeSegment(world, 0, 100, 0);
+
+        assertNotEquals(before, index.getAreaEpoch(world, 0, 0, 31, 15));
+    }
+
+    @Test
+    void areaEpochChangesWhenChunkUnloads() {
+        hang(0, 100, 96, Rope.AnchorType.SOLID);
+        hang(16, 100, 96, Rope.AnchorType.SOLID);
+        long before = index.getAreaEpoch(world, 0, 0, 31, 15);
+
+        index.unloadChunk(world, 0, 0);
+
+        assertNotEquals(before, index.getAreaEpoch(world, 0, 0, 31, 15));
+    }
+
+    private Rope hang(int x, int topY, int bottomY, Rope.AnchorType anchorType) {
+        for (int y = topY; y >= bottomY; y--) {
+            index.addSegment(world, x, y, 0, anchorType);
+        }
+        return index.getRope(world, x, topY, 0);
+    }
+}
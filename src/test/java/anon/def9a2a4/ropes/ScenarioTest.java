@@ -0,0 +1,331 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Chunk;
+import org.bukkit.ExplosionResult;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Item;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The player scenarios from ScenarioBenchmark, run once each through the real
+ * {@link Listeners} and {@link ClimbingListener} handlers on a fresh server.
+ *
+ * Each test checks the blocks, the rope index, the displays and the dropped coils
+ * the scenario leaves behind, and counts the entity queries and block lookups the
+ * handler made against the limits in {@code src/jmh/budgets.properties}, so a
+ * regression in either fails the build rather than waiting for a benchmark run.
+ */
+class ScenarioTest {
+    private static final int LENGTH = 8;
+    private static final int TOP_Y = 100;
+    private static final Properties BUDGETS = loadBudgets();
+
+    private ServerMock server;
+    private RopesPlugin plugin;
+    private CountingWorld world;
+    private Listeners listeners;
+    private Items items;
+    private PlayerMock player;
+    private Block ceiling;
+    private Block top;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(RopesPlugin.class);
+        world = new CountingWorld();
+        server.addWorld(world);
+
+        // Place instantly so each scenario finishes inside its handler
+        plugin.getConfig().set("rope-block.animation.enabled", false);
+        plugin.saveConfig();
+        plugin.reloadConfiguration();
+        listeners = new Listeners(plugin);
+        items = plugin.getItems();
+
+        ceiling = world.getBlockAt(0, TOP_Y + 1, 0);
+        world.loadChunk(ceiling.getX() >> 4, ceiling.getZ() >> 4);
+        ceiling.setType(Material.STONE);
+        top = ceiling.getRelative(BlockFace.DOWN);
+        player = server.addPlayer();
+        player.teleport(new Location(world, 2.5, TOP_Y - 2, 0.5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void place() {
+        holdCoil(LENGTH);
+        measure("place", () -> listeners.onPlayerInteract(click(Action.RIGHT_CLICK_BLOCK, ceiling)));
+
+        assertRope(LENGTH);
+        assertEquals(LENGTH, ropeDisplays());
+        assertTrue(player.getInventory().getItemInMainHand().isEmpty());
+        assertEquals(0, droppedRope());
+    }
+
+    @Test
+    void extend() {
+        hang(LENGTH / 2);
+        holdCoil(LENGTH / 2);
+        measure("extend", () -> listeners.onPlayerInteract(click(Action.RIGHT_CLICK_BLOCK, top)));
+
+        assertRope(LENGTH);
+        assertEquals(LENGTH, ropeDisplays());
+        assertTrue(player.getInventory().getItemInMainHand().isEmpty());
+        assertEquals(0, droppedRope());
+    }
+
+    @Test
+    void breakByHand() {
+        hang(LENGTH);
+        measure("breakByHand", () -> listeners.onPlayerInteract(click(Action.LEFT_CLICK_BLOCK, top)));
+        server.getScheduler().performTicks(2);
+
+        assertNoRope();
+        assertEquals(LENGTH, droppedRope());
+    }
+
+    @Test
+    void explode() {
+        hang(LENGTH);
+        EntityExplodeEvent event = new EntityExplodeEvent(player, top.getLocation(), ropeBlocks(), 1.0f,
+            ExplosionResult.DESTROY);
+        measure("explode", () -> listeners.onEntityExplode(event));
+        server.getScheduler().performTicks(2);
+
+        // The plugin breaks the rope itself, so the explosion must not drop the chain blocks too
+        assertTrue(event.blockList().isEmpty());
+        assertNoRope();
+        assertEquals(LENGTH, droppedRope());
+    }
+
+    @Test
+    void piston() {
+        hang(LENGTH);
+        Block piston = top.getRelative(BlockFace.WEST);
+        BlockPistonExtendEvent event = new BlockPistonExtendEvent(piston, ropeBlocks(), BlockFace.EAST);
+        measure("piston", () -> listeners.onPistonExtend(event));
+        server.getScheduler().performTicks(2);
+
+        assertNoRope();
+        assertEquals(LENGTH, droppedRope());
+    }
+
+    @Test
+    void pistonMove() {
+        setConfig("rope-block.piston-behavior", "move");
+        hang(LENGTH);
+        Block piston = top.getRelative(BlockFace.WEST);
+        BlockPistonExtendEvent event = new BlockPistonExtendEvent(piston, ropeBlocks(), BlockFace.EAST);
+        measure("pistonMove", () -> listeners.onPistonExtend(event));
+        server.getScheduler().performTicks(2);
+
+        // The piston moves the chain blocks itself; the plugin only moves the record and displays
+        assertNull(plugin.getRopeIndex().getRope(world, top.getX(), top.getY(), top.getZ()));
+        Rope moved = plugin.getRopeIndex().getRope(world, top.getX() + 1, top.getY(), top.getZ());
+        assertNotNull(moved);
+        assertEquals(top.getY(), moved.getTopY());
+        assertEquals(LENGTH, moved.getLength());
+        assertEquals(1, plugin.getRopeIndex().ropeCount(world));
+        assertEquals(LENGTH, ropeDisplays());
+        assertEquals(0, droppedRope());
+    }
+
+    @Test
+    void pistonMoveBreaksPartlyCaughtRope() {
+        setConfig("rope-block.piston-behavior", "move");
+        hang(LENGTH);
+        // A sideways push in line with the middle of the rope catches one of its blocks
+        Block caught = top.getRelative(BlockFace.DOWN, LENGTH / 2);
+        BlockPistonExtendEvent event = new BlockPistonExtendEvent(caught.getRelative(BlockFace.WEST),
+            List.of(caught), BlockFace.EAST);
+        listeners.onPistonExtend(event);
+        server.getScheduler().performTicks(2);
+
+        assertNoRope();
+        assertEquals(LENGTH, droppedRope());
+    }
+
+    @Test
+    void rebuildMergedRopeFromCorruptData() {
+        setConfig("rope-block.display-mode", "merged");
+        hang(LENGTH);
+        Chunk chunk = top.getChunk();
+        Storage storage = plugin.getStorage();
+        storage.saveChunk(chunk);
+        chunk.getPersistentDataContainer().set(new NamespacedKey(plugin, "rope_segments"),
+            PersistentDataType.BYTE_ARRAY, new byte[] {99});
+
+        // Reload the chunk: the bad data is dropped and the rope comes back from its single display
+        plugin.getRopeIndex().unloadChunk(world, chunk.getX(), chunk.getZ());
+        storage.loadChunk(chunk);
+        listeners.onEntitiesLoad(new EntitiesLoadEvent(chunk, new ArrayList<>(world.getEntities())));
+        assertRope(LENGTH);
+        assertEquals(1, ropeDisplays());
+
+        // The rebuilt rope is what gets stored in place of the bad data
+        storage.saveChunk(chunk);
+        plugin.getRopeIndex().unloadChunk(world, chunk.getX(), chunk.getZ());
+        storage.loadChunk(chunk);
+        assertRope(LENGTH);
+    }
+
+    @Test
+    void climb() {
+        hang(LENGTH);
+        ClimbingListener climbing = new ClimbingListener(plugin.getClimbing());
+
+        // Inside the rope column looking up, so climbing ascends
+        Location away = player.getLocation();
+        Location onRope = new Location(world, top.getX() + 0.5, TOP_Y - 5, top.getZ() + 0.5, 0, -45);
+        Location nudged = onRope.clone().add(0.1, 0, 0.1);
+
+        measure("climbNewBlock", () -> climbing.onPlayerMove(new PlayerMoveEvent(player, away, onRope)));
+        assertEquals(1, plugin.getClimbing().getClimberCount());
+
+        player.teleport(onRope);
+        measure("climbSameBlock", () -> climbing.onPlayerMove(new PlayerMoveEvent(player, onRope, nudged)));
+        server.getScheduler().performOneTick();
+        assertEquals(1, plugin.getClimbing().getClimberCount());
+        assertEquals(plugin.getConfiguration().getClimbSpeed(), player.getVelocity().getY(), 1e-9);
+
+        climbing.onPlayerMove(new PlayerMoveEvent(player, nudged, away));
+        assertEquals(0, plugin.getClimbing().getClimberCount());
+        assertRope(LENGTH);
+    }
+
+    // ==================== HELPERS ====================
+
+    private void hang(int length) {
+        plugin.getRopes().placeRope(top.getLocation(), length);
+    }
+
+    private void setConfig(String path, Object value) {
+        plugin.getConfig().set(path, value);
+        plugin.saveConfig();
+        plugin.reloadConfiguration();
+    }
+
+    private void holdCoil(int length) {
+        player.getInventory().setItemInMainHand(items.createRopeCoil(length));
+    }
+
+    private PlayerInteractEvent click(Action action, Block block) {
+        BlockFace face = action == Action.RIGHT_CLICK_BLOCK && block == ceiling ? BlockFace.DOWN : BlockFace.NORTH;
+        return new PlayerInteractEvent(player, action, player.getInventory().getItemInMainHand(),
+            block, face, EquipmentSlot.HAND);
+    }
+
+    private List<Block> ropeBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < LENGTH; i++) {
+            blocks.add(top.getRelative(BlockFace.DOWN, i));
+        }
+        return blocks;
+    }
+
+    /**
+     * Runs a handler and checks the entity queries and block lookups it made against its budget.
+     */
+    private void measure(String scenario, Runnable handler) {
+        long entityQueries = world.entityQueries;
+        long blockAccesses = world.blockAccesses;
+        handler.run();
+        assertWithinBudget(scenario, "entityQueries", world.entityQueries - entityQueries);
+        assertWithinBudget(scenario, "blockAccesses", world.blockAccesses - blockAccesses);
+    }
+
+    private static void assertWithinBudget(String scenario, String metric, long measured) {
+        String limit = BUDGETS.getProperty(scenario + "." + metric);
+        assertNotNull(limit, () -> "No budget for " + scenario + "." + metric);
+        assertTrue(measured <= Long.parseLong(limit.trim()),
+            () -> scenario + ": " + metric + " " + measured + " > " + limit);
+    }
+
+    private void assertRope(int length) {
+        Material chainMaterial = plugin.getConfiguration().getChainMaterial();
+        for (int y = top.getY(); y > top.getY() - length; y--) {
+            assertEquals(chainMaterial, world.getBlockAt(top.getX(), y, top.getZ()).getType(), "block at y=" + y);
+        }
+        assertEquals(Material.AIR, world.getBlockAt(top.getX(), top.getY() - length, top.getZ()).getType());
+
+        Rope rope = plugin.getRopeIndex().getRope(world, top.getX(), top.getY(), top.getZ());
+        assertNotNull(rope);
+        assertEquals(top.getY(), rope.getTopY());
+        assertEquals(length, rope.getLength());
+        assertEquals(Rope.AnchorType.SOLID, rope.getAnchorType());
+        assertEquals(1, plugin.getRopeIndex().ropeCount(world));
+    }
+
+    private void assertNoRope() {
+        for (int y = top.getY(); y > top.getY() - LENGTH; y--) {
+            assertEquals(Material.AIR, world.getBlockAt(top.getX(), y, top.getZ()).getType(), "block at y=" + y);
+            assertNull(plugin.getRopeIndex().getRope(world, top.getX(), y, top.getZ()));
+        }
+        assertEquals(0, plugin.getRopeIndex().ropeCount(world));
+        assertEquals(0, ropeDisplays());
+    }
+
+    private long ropeDisplays() {
+        Display display = plugin.getDisplay();
+        return world.getEntities().stream().filter(display::isRopeDisplay).count();
+    }
+
+    /**
+     * Total rope length in the coil items lying on the ground.
+     */
+    private int droppedRope() {
+        int meters = 0;
+        for (Item item : world.getEntitiesByClass(Item.class)) {
+            if (items.isRopeCoil(item.getItemStack())) {
+                meters += items.getRopeLength(item.getItemStack()) * item.getItemStack().getAmount();
+            }
+        }
+        return meters;
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        try (InputStream in = Files.newInputStream(Path.of("src/jmh/budgets.properties"))) {
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,82 @@
+package anon.def9a2a4.ropes;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.mockbukkit.mockbukkit.block.BlockMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A mock world that counts entity queries and block lookups, the main costs the
+ * plugin is budgeted on. Calls the mock makes internally while answering another
+ * one are not counted.
+ */
+public class CountingWorld extends WorldMock {
+    long entityQueries;
+    long blockAccesses;
+    private int depth;
+
+    @Override
+    public List<Entity> getEntities() {
+        enter(true);
+        try {
+            return super.getEntities();
+        } finally {
+            depth--;
+        }
+    }
+
+    @Override
+    public Collection<Entity> getNearbyEntities(Location location, double x, double y, double z) {
+        enter(true);
+        try {
+            return super.getNearbyEntities(location, x, y, z);
+        } finally {
+            depth--;
+        }
+    }
+
+    @Override
+    public Collection<Entity> getNearbyEntities(BoundingBox boundingBox, Predicate<? super Entity> filter) {
+        enter(true);
+        try {
+            return super.getNearbyEntities(boundingBox, filter);
+        } finally {
+            depth--;
+        }
+    }
+
+    @Override
+    public BlockMock getBlockAt(int x, int y, int z) {
+        enter(false);
+        try {
+            return (BlockMock) super.getBlockAt(x, y, z);
+        } finally {
+            depth--;
+        }
+    }
+
+    @Override
+    public BlockMock getBlockAt(Location location) {
+        enter(false);
+        try {
+            return (BlockMock) super.getBlockAt(location);
+        } finally {
+            depth--;
+        }
+    }
+
+    private void enter(boolean entityQuery) {
+        if (depth++ == 0) {
+            if (entityQuery) {
+                entityQueries++;
+            } else {
+                blockAccesses++;
+            }
+        }
+    }
+}